@@ -1,19 +1,27 @@
 package actors;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Map;
-import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import akka.actor.AbstractActor;
+import akka.actor.AbstractActorWithTimers;
 import akka.actor.ActorRef;
+import commands.ActorCommandSink;
+import commands.CommandSink;
+import commands.EntityRegistry;
+import commands.Timeline;
 import events.*;
 import play.libs.Json;
 import structures.GameState;
-import utils.ImageListForPreLoad;
+import utils.ContentSnapshot;
+import utils.GameContent;
+import utils.GameJournal;
+import utils.PreloadManifest;
 
 /**
  * The game actor is an Akka Actor that receives events from the user front-end
@@ -31,13 +39,25 @@ import utils.ImageListForPreLoad;
  * @author Dr. Richard McCreadie
  *
  */
-public class GameActor extends AbstractActor {
+public class GameActor extends AbstractActorWithTimers {
 
 	private ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to turn java objects to
 														// Strings
 	private ActorRef out; // The ActorRef can be used to send messages to the front-end UI
 	private Map<String, EventProcessor> eventProcessors; // Classes used to process each type of event
 	private GameState gameState; // A class that can be used to hold game state information
+	private Timeline timeline; // Holds the UI commands waiting to be shown
+	private GameJournal journal; // Records events and commands, null if journalling is off
+	private final ContentSnapshot content = GameContent.latest(); // The game content this game plays with, even if it is reloaded
+
+	// Where blocking work such as GameJournal.prune() runs
+	private static final String BLOCKING_DISPATCHER = "akka.actor.default-blocking-io-dispatcher";
+
+	// Sent to ourselves by the scheduler when the next batch on the timeline is due
+	private static final Object DELIVER_DUE = "deliverDue";
+
+	// Plain JSON commands with every entity sent in full
+	public static final String DEFAULT_PROTOCOL = "json";
 
 	/**
 	 * Constructor for the GameActor. This is called by the GameController when the
@@ -46,37 +66,75 @@ public class GameActor extends AbstractActor {
 	 * 
 	 * @param out
 	 */
-	@SuppressWarnings("deprecation")
 	public GameActor(ActorRef out) {
+		this(out, DEFAULT_PROTOCOL);
+	}
+
+	/**
+	 * @param out
+	 * @param protocol the command protocol the browser asked for, either DEFAULT_PROTOCOL
+	 * or EntityRegistry.PROTOCOL
+	 */
+	public GameActor(ActorRef out, String protocol) {
+		this(out, protocol, null, 0);
+	}
+
+	/**
+	 * @param out
+	 * @param protocol the command protocol the browser asked for
+	 * @param journalDirectory where to keep a GameJournal of this game, in a directory of
+	 * its own, or null/empty for no journal
+	 * @param journalKeep how many games' journals to keep there, 0 for all of them
+	 */
+	public GameActor(ActorRef out, String protocol, String journalDirectory, int journalKeep) {
 
 		this.out = out; // save this, so we can send commands to the front-end later
+		boolean refs = EntityRegistry.PROTOCOL.equals(protocol);
+
+		if (journalDirectory!=null && !journalDirectory.isEmpty()) {
+			try {
+				journal = GameJournal.start(Paths.get(journalDirectory));
+			} catch (IOException e) {
+				e.printStackTrace(); // play on without a journal
+			}
+			// deleting old journals is slow file I/O, keep it off the actor's dispatcher
+			getContext().getSystem().dispatchers().lookup(BLOCKING_DISPATCHER)
+					.execute(() -> GameJournal.prune(Paths.get(journalDirectory), journalKeep));
+		}
+		CommandSink sink = new ActorCommandSink(out);
+		if (journal!=null) {
+			CommandSink browser = sink;
+			sink = message -> {
+				journal.command(message);
+				browser.tell(message);
+			};
+		}
+		this.timeline = new Timeline(out, sink, refs);
 
 		// create class instances to respond to the various events that we might recieve
-		eventProcessors = new HashMap<String, EventProcessor>();
-		eventProcessors.put("initalize", new Initialize());
-		eventProcessors.put("heartbeat", new Heartbeat());
-		eventProcessors.put("unitMoving", new UnitMoving());
-		eventProcessors.put("unitstopped", new UnitStopped());
-		eventProcessors.put("unitAttacking", new UnitAttacking());
-		eventProcessors.put("tileclicked", new TileClicked());
-		eventProcessors.put("cardclicked", new CardClicked());
-		eventProcessors.put("endturnclicked", new EndTurnClicked());
-		eventProcessors.put("otherclicked", new OtherClicked());
-		eventProcessors.put("StartTurn", new StartTurn());
-
-		// Initalize a new game state object
-		gameState = new GameState();
-
-		// Get the list of image files to pre-load the UI with
-		Set<String> images = ImageListForPreLoad.getImageListForPreLoad();
+		eventProcessors = EventProcessors.create();
 
+		content.begin();
 		try {
-			ObjectNode readyMessage = Json.newObject();
-			readyMessage.put("messagetype", "actorReady");
-			readyMessage.put("preloadImages", mapper.readTree(mapper.writeValueAsString(images)));
-			out.tell(readyMessage, out);
-		} catch (Exception e) {
-			e.printStackTrace();
+			// Initalize a new game state object
+			gameState = new GameState();
+
+			// The list of image files to pre-load the UI with, the browser fetches it from
+			// its own URL so that it can cache it
+			PreloadManifest preload = PreloadManifest.get();
+
+			try {
+				ObjectNode readyMessage = Json.newObject();
+				readyMessage.put("messagetype", "actorReady");
+				readyMessage.put("protocol", refs ? EntityRegistry.PROTOCOL : DEFAULT_PROTOCOL);
+				readyMessage.put("preloadManifest", preload.getPath());
+				if (journal!=null) journal.command(readyMessage);
+				out.tell(readyMessage, out);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		} finally {
+			content.end();
 		}
 	}
 
@@ -91,8 +149,11 @@ public class GameActor extends AbstractActor {
 		return receiveBuilder()
 				.match(JsonNode.class, message -> {
 					System.out.println(message);
+					if (journal!=null) journal.event(message);
 					processMessage(message.get("messagetype").asText(), message);
-				}).build();
+				})
+				.matchEquals(DELIVER_DUE, message -> deliverDue())
+				.build();
 	}
 
 	/**
@@ -112,10 +173,38 @@ public class GameActor extends AbstractActor {
 			// Unknown event type received
 			System.err.println("GameActor: Recieved unknown event type " + messageType);
 		} else {
-			processor.processEvent(out, gameState, message); // process the event
+			// queue the commands this event produces on the timeline rather than blocking
+			// the dispatcher thread while animations play
+			timeline.begin();
+			content.begin();
+			try {
+				processor.processEvent(out, gameState, message); // process the event
+			} finally {
+				content.end();
+				timeline.end();
+			}
+			deliverDue();
+		}
+	}
+
+	/**
+	 * Sends every batch on the timeline that is due now and asks the scheduler to
+	 * wake us up when the next one is due.
+	 */
+	private void deliverDue() {
+		long now = System.currentTimeMillis();
+		timeline.deliverDue(now);
+		long next = timeline.nextDue();
+		if (next>=0) {
+			getTimers().startSingleTimer(DELIVER_DUE, DELIVER_DUE, Duration.ofMillis(Math.max(1, next-now)));
 		}
 	}
 
+	@Override
+	public void postStop() {
+		if (journal!=null) journal.close();
+	}
+
 	public void reportError(String errorText) {
 		ObjectNode returnMessage = Json.newObject();
 		returnMessage.put("messagetype", "ERR");
@@ -0,0 +1,81 @@
+package actors;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import commands.CommandSink;
+import commands.Timeline;
+import events.EventProcessor;
+import events.EventProcessors;
+import structures.GameState;
+import structures.basic.BoardGeometry;
+import utils.ContentSnapshot;
+import utils.GameContent;
+
+/**
+ * A game without a browser or an actor, for simulations, load tests and unit tests. It
+ * processes events the same way as the GameActor, but hands the resulting commands to
+ * its CommandSink straight away instead of pacing them. Each HeadlessGame has its own
+ * state, timeline, sink and content snapshot, so many can run at once on different
+ * threads (one thread per game at a time).
+ *
+ */
+public class HeadlessGame {
+
+	private final Map<String, EventProcessor> eventProcessors = EventProcessors.create();
+	private final ContentSnapshot content = GameContent.latest();
+	private final GameState gameState;
+	private final Timeline timeline;
+
+	/**
+	 * @param sink receives every command the game produces
+	 * @param refs whether later commands should refer to already sent entities by id (see EntityRegistry)
+	 */
+	public HeadlessGame(CommandSink sink, boolean refs) {
+		this(sink, refs, BoardGeometry.STANDARD);
+	}
+
+	/**
+	 * @param sink receives every command the game produces
+	 * @param refs whether later commands should refer to already sent entities by id (see EntityRegistry)
+	 * @param geometry the board to play on
+	 */
+	public HeadlessGame(CommandSink sink, boolean refs, BoardGeometry geometry) {
+		this.timeline = new Timeline(null, sink, refs, geometry);
+		content.begin();
+		try {
+			this.gameState = new GameState(geometry);
+		} finally {
+			content.end();
+		}
+	}
+
+	/**
+	 * Processes one event from the (imaginary) browser, e.g. {"messagetype":"tileclicked",...}
+	 * @param message
+	 * @throws InterruptedException
+	 */
+	public void processMessage(JsonNode message) throws InterruptedException {
+		String messageType = message.get("messagetype").asText();
+		EventProcessor processor = eventProcessors.get(messageType);
+		if (processor == null) {
+			System.err.println("HeadlessGame: Recieved unknown event type " + messageType);
+			return;
+		}
+		timeline.begin();
+		content.begin();
+		try {
+			processor.processEvent(null, gameState, message);
+		} finally {
+			content.end();
+			timeline.end();
+		}
+		timeline.deliverDue(Long.MAX_VALUE);
+	}
+
+	public GameState getGameState() {
+		return gameState;
+	}
+
+}
@@ -52,10 +52,46 @@ function setup() {
   g.state = play;
 }
 
+// Sends a message to the GameActor in whichever encoding the connection was opened with
+function sendMessage(message) {
+	if (wireEncoding === "cbor") ws.send(CBOR.encode(message));
+	else ws.send(JSON.stringify(message));
+}
+
 function bgClicked(eventData) {
-	ws.send(JSON.stringify({
+	sendMessage({
     		messagetype: "otherclicked"
-  	}));
+  	});
+}
+
+// Fills in the units, tiles and effects that the server only referred to
+// (by unit id, tile coordinates or effect id) from the ones it sent earlier
+function resolveRefs(message) {
+	if (message.unit) message.unit = resolveUnit(message.unit);
+	if (message.tile) message.tile = resolveTile(message.tile);
+	if (message.targetTile) message.targetTile = resolveTile(message.targetTile);
+	if (message.effectId !== undefined) {
+		if (message.effect) effectDefs.set(message.effectId, message.effect);
+		else message.effect = effectDefs.get(message.effectId);
+	}
+	if (message.messagetype === "deleteUnit") unitDefs.delete(message.unit.id);
+}
+
+function resolveUnit(unit) {
+	if (unit.animations) {
+		unitDefs.set(unit.id, unit);
+		return unit;
+	}
+	return Object.assign({}, unitDefs.get(unit.id), unit);
+}
+
+function resolveTile(tile) {
+	var tileid = tile.tilex+"-"+tile.tiley;
+	if (tile.tileTextures) {
+		tileDefs.set(tileid, tile);
+		return tile;
+	}
+	return tileDefs.get(tileid);
 }
 
 function drawTile(message) {
@@ -86,11 +122,11 @@ function drawTile(message) {
 }
 
 function tileClicked(eventData) {
-	ws.send(JSON.stringify({
+	sendMessage({
     		messagetype: "tileclicked",
             tilex: eventData.target.tilex,
             tiley: eventData.target.tiley,
-  	}));
+  	});
 }
 
 function drawCard(message) {
@@ -235,10 +271,10 @@ function renderCardPreview(position) {
 
 function cardClicked(eventData) {
 	renderCardPreview(eventData.target.cardindex);
-	ws.send(JSON.stringify({
+	sendMessage({
     		messagetype: "cardclicked",
             position: eventData.target.cardindex
-  	}));
+  	});
 }
 
 
@@ -342,12 +378,12 @@ function getFrameSet(unit) {
 
 // Starts a move action for a Unit
 function moveUnit(unitID, xTile, yTile) {
-	ws.send(JSON.stringify({
+	sendMessage({
     		messagetype: "getTileForMove",
 			unitID: unitID,
 			xTile: xTile,
 			yTile: yTile
-  		}));
+  		});
 }
 
 function moveUnitToTile(message) {
@@ -365,10 +401,10 @@ function executeMoveStep(message) {
 	if (message.unit.animation != "move") {
 		targetUnit.stopAnimation();
 		
-		ws.send(JSON.stringify({
+		sendMessage({
     		messagetype: "unitMoving",
 			id: message.unit.id
-  		}));
+  		});
 		
 		message.unit.animation = "move";
 		targetUnit.fps = message.unit.animations.move.fps;
@@ -448,12 +484,12 @@ function executeMoveStep(message) {
 	  var sprite = sprites.get(message.unit.id);
 	  sprite.stopAnimation();
 
-	  ws.send(JSON.stringify({
+	  sendMessage({
     		messagetype: "unitstopped",
 			id: message.unit.id,
 			tilex: message.tile.tilex,
 			tiley: message.tile.tiley
-  	  }));
+  	  });
 
 	  message.unit.animation = "idle";
 	  targetUnit.fps = message.unit.animations.idle.fps;
@@ -697,9 +733,9 @@ function renderEndTurnButton() {
 }
 
 function endturnClicked(eventData) {
-	ws.send(JSON.stringify({
+	sendMessage({
     		messagetype: "endturnclicked"
-  	}));
+  	});
 }
 
 
@@ -939,9 +975,9 @@ function play(){
   if (gameActorInitalized) {
 	
 	if (!gameStart) {
-		ws.send(JSON.stringify({
+		sendMessage({
     		messagetype: "initalize"
-  		}));
+  		});
         gameStart = true;
 
 		renderPlayer1Card();
@@ -951,12 +987,12 @@ function play(){
 	
 	// Draw Tile Actions
 	while (drawTileQueue.length>0) {
-		drawTile(drawTileQueue.pop());
+		drawTile(drawTileQueue.shift());
 	}
 	
 	// Draw Tile Actions
 	while (drawUnitQueue.length>0) {
-		drawUnit(drawUnitQueue.pop());
+		drawUnit(drawUnitQueue.shift());
 	}
 	
 	var continuingProjectiles = [];
@@ -1025,9 +1061,9 @@ function play(){
 
 	sinceLastHeartbeat = sinceLastHeartbeat+1;
 	if (sinceLastHeartbeat==120) {
-		ws.send(JSON.stringify({
+		sendMessage({
     		messagetype: "heartbeat"
-        }));
+        });
         sinceLastHeartbeat = 1;
 	}
     				
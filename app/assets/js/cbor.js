@@ -0,0 +1,169 @@
+// Minimal CBOR (RFC 8949) encoder/decoder for the game websocket.
+// Covers the JSON data model (maps, arrays, strings, numbers, booleans, null),
+// which is all the server sends when the connection uses encoding=cbor.
+
+var CBOR = (function() {
+
+	// both are missing on very old browsers, which then stay on JSON
+	var utf8Decoder = (typeof TextDecoder !== "undefined") ? new TextDecoder("utf-8") : null;
+	var utf8Encoder = (typeof TextEncoder !== "undefined") ? new TextEncoder() : null;
+
+	function decode(buffer) {
+		var view = new DataView(buffer);
+		var bytes = new Uint8Array(buffer);
+		var offset = 0;
+
+		function readLength(info) {
+			if (info < 24) return info;
+			if (info === 24) { var v = view.getUint8(offset); offset += 1; return v; }
+			if (info === 25) { var v = view.getUint16(offset); offset += 2; return v; }
+			if (info === 26) { var v = view.getUint32(offset); offset += 4; return v; }
+			if (info === 27) {
+				var hi = view.getUint32(offset), lo = view.getUint32(offset+4);
+				offset += 8;
+				return hi*4294967296 + lo;
+			}
+			if (info === 31) return -1; // indefinite length
+			throw new Error("CBOR: bad length " + info);
+		}
+
+		function readFloat16() {
+			var half = view.getUint16(offset);
+			offset += 2;
+			var exp = (half >> 10) & 0x1f, mant = half & 0x3ff;
+			var value;
+			if (exp === 0) value = mant * Math.pow(2, -24);
+			else if (exp !== 31) value = (mant + 1024) * Math.pow(2, exp - 25);
+			else value = mant === 0 ? Infinity : NaN;
+			return (half & 0x8000) ? -value : value;
+		}
+
+		function readString(length) {
+			var value = utf8Decoder.decode(bytes.subarray(offset, offset+length));
+			offset += length;
+			return value;
+		}
+
+		function readItem() {
+			var initial = view.getUint8(offset);
+			offset += 1;
+			var major = initial >> 5, info = initial & 0x1f;
+
+			switch (major) {
+				case 0: return readLength(info);
+				case 1: return -1 - readLength(info);
+				case 2:
+				case 3: {
+					var length = readLength(info);
+					if (length >= 0) {
+						if (major === 3) return readString(length);
+						var chunk = bytes.slice(offset, offset+length);
+						offset += length;
+						return chunk;
+					}
+					var parts = []; // indefinite length, a series of definite chunks
+					while (view.getUint8(offset) !== 0xff) parts.push(readItem());
+					offset += 1;
+					return major === 3 ? parts.join("") : parts;
+				}
+				case 4: {
+					var length = readLength(info);
+					var array = [];
+					if (length >= 0) {
+						for (var i = 0; i < length; i++) array.push(readItem());
+					} else {
+						while (view.getUint8(offset) !== 0xff) array.push(readItem());
+						offset += 1;
+					}
+					return array;
+				}
+				case 5: {
+					var length = readLength(info);
+					var object = {};
+					if (length >= 0) {
+						for (var i = 0; i < length; i++) {
+							var key = readItem();
+							object[key] = readItem();
+						}
+					} else {
+						while (view.getUint8(offset) !== 0xff) {
+							var key = readItem();
+							object[key] = readItem();
+						}
+						offset += 1;
+					}
+					return object;
+				}
+				case 6:
+					readLength(info); // tags carry no meaning for us
+					return readItem();
+				case 7:
+					if (info === 20) return false;
+					if (info === 21) return true;
+					if (info === 22) return null;
+					if (info === 23) return undefined;
+					if (info === 25) return readFloat16();
+					if (info === 26) { var v = view.getFloat32(offset); offset += 4; return v; }
+					if (info === 27) { var v = view.getFloat64(offset); offset += 8; return v; }
+					throw new Error("CBOR: unsupported simple value " + info);
+			}
+		}
+
+		return readItem();
+	}
+
+	function encode(value) {
+		var bytes = [];
+
+		function writeHead(major, length) {
+			if (length < 24) {
+				bytes.push((major << 5) | length);
+			} else if (length < 0x100) {
+				bytes.push((major << 5) | 24, length);
+			} else if (length < 0x10000) {
+				bytes.push((major << 5) | 25, length >> 8, length & 0xff);
+			} else {
+				bytes.push((major << 5) | 26, (length >>> 24) & 0xff, (length >> 16) & 0xff, (length >> 8) & 0xff, length & 0xff);
+			}
+		}
+
+		function writeItem(item) {
+			if (item === null || item === undefined) {
+				bytes.push(0xf6);
+			} else if (item === false) {
+				bytes.push(0xf4);
+			} else if (item === true) {
+				bytes.push(0xf5);
+			} else if (typeof item === "number") {
+				if (Number.isInteger(item) && Math.abs(item) <= 0xffffffff) {
+					if (item >= 0) writeHead(0, item);
+					else writeHead(1, -1 - item);
+				} else {
+					var buffer = new DataView(new ArrayBuffer(8));
+					buffer.setFloat64(0, item);
+					bytes.push(0xfb);
+					for (var i = 0; i < 8; i++) bytes.push(buffer.getUint8(i));
+				}
+			} else if (typeof item === "string") {
+				var utf8 = utf8Encoder.encode(item);
+				writeHead(3, utf8.length);
+				for (var i = 0; i < utf8.length; i++) bytes.push(utf8[i]);
+			} else if (Array.isArray(item)) {
+				writeHead(4, item.length);
+				for (var i = 0; i < item.length; i++) writeItem(item[i]);
+			} else {
+				var keys = Object.keys(item);
+				writeHead(5, keys.length);
+				for (var i = 0; i < keys.length; i++) {
+					writeItem(keys[i]);
+					writeItem(item[keys[i]]);
+				}
+			}
+		}
+
+		writeItem(value);
+		return new Uint8Array(bytes).buffer;
+	}
+
+	return { decode: decode, encode: encode };
+})();
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import commands.BasicCommands;
+import commands.Timeline;
+import play.libs.Json;
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import structures.subcard.player1.BadOmen;
+import utils.BasicObjectBuilders;
+import utils.StaticConfFiles;
+
+/**
+ * Compares the old way BasicCommands built its messages (writeValueAsString followed by
+ * readTree for every embedded object) with the single pass CommandEncoder. For each
+ * command it reports the average time and the number of bytes allocated per command.
+ *
+ * Run from the project root (the config files are loaded with relative paths), e.g.
+ * sbt "runMain benchmarks.CommandEncodingBenchmark"
+ *
+ */
+public class CommandEncodingBenchmark {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private static final int WARMUP = 20000;
+	private static final int ITERATIONS = 100000;
+
+	private static JsonNode last; // keeps the JIT from discarding the work
+
+	interface Command {
+		JsonNode build() throws Exception;
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		Tile tile = BasicObjectBuilders.loadTile(3, 2);
+		Unit unit = BasicObjectBuilders.loadUnit(StaticConfFiles.humanAvatar, 0, Unit.class);
+		unit.setPositionByTile(tile);
+		Card card = BasicObjectBuilders.loadCard("conf/gameconfs/cards/1_1_c_u_bad_omen.json", 0, BadOmen.class);
+		EffectAnimation effect = BasicObjectBuilders.loadEffect(StaticConfFiles.f1_inmolation);
+
+		// commands are queued on a timeline and taken off straight away, as a game would
+		Timeline timeline = new Timeline(null, message -> last = message, false);
+		timeline.begin();
+
+		run("drawTile", () -> {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "drawTile");
+			returnMessage.set("tile", mapper.readTree(mapper.writeValueAsString(tile)));
+			returnMessage.put("mode", 1);
+			return returnMessage;
+		}, () -> BasicCommands.drawTileMessage(null, tile, 1)); // drawTile itself only queues changed tiles
+
+		run("drawUnit", () -> {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "drawUnit");
+			returnMessage.set("tile", mapper.readTree(mapper.writeValueAsString(tile)));
+			returnMessage.set("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			return returnMessage;
+		}, () -> { BasicCommands.drawUnit(null, unit, tile); timeline.deliverDue(Long.MAX_VALUE); return last; });
+
+		run("setUnitHealth", () -> {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "setUnitHealth");
+			returnMessage.set("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			returnMessage.put("health", 20);
+			return returnMessage;
+		}, () -> { BasicCommands.setUnitHealth(null, unit, 20); timeline.deliverDue(Long.MAX_VALUE); return last; });
+
+		run("drawCard", () -> {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "drawCard");
+			returnMessage.set("card", mapper.readTree(mapper.writeValueAsString(card)));
+			returnMessage.put("position", 1);
+			returnMessage.put("mode", 0);
+			return returnMessage;
+		}, () -> { BasicCommands.drawCard(null, card, 1, 0); timeline.deliverDue(Long.MAX_VALUE); return last; });
+
+		run("playEffectAnimation", () -> {
+			ObjectNode returnMessage = Json.newObject();
+			returnMessage.put("messagetype", "playEffectAnimation");
+			returnMessage.set("effect", mapper.readTree(mapper.writeValueAsString(effect)));
+			returnMessage.set("tile", mapper.readTree(mapper.writeValueAsString(tile)));
+			return returnMessage;
+		}, () -> { BasicCommands.playEffectAnimation(null, effect, tile); timeline.deliverDue(Long.MAX_VALUE); return last; });
+
+		timeline.end();
+	}
+
+	private static void run(String name, Command before, Command after) throws Exception {
+		if (!before.build().equals(after.build())) {
+			System.out.println(name+": WARNING payloads differ");
+		}
+		for (int i = 0; i < WARMUP; i++) { before.build(); after.build(); }
+
+		long[] b = measure(before);
+		long[] a = measure(after);
+		System.out.println(String.format("%-20s before: %7d ns/op %8d B/op   after: %7d ns/op %8d B/op",
+				name, b[0], b[1], a[0], a[1]));
+	}
+
+	private static long[] measure(Command command) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) last = command.build();
+		long elapsed = System.nanoTime() - start;
+		long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+		return new long[] {elapsed/ITERATIONS, bytes/ITERATIONS};
+	}
+
+}
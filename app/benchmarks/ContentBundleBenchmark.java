@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import utils.ContentBundle;
+
+/**
+ * Compares reading every configuration file under conf/gameconfs from the loose files with
+ * opening a ContentBundle of them and decoding every entry, and checks both give the same
+ * content. The first round is what a server does once at start up (though the operating
+ * system will already have the files cached), the rest show the steady state.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.ContentBundleBenchmark"
+ *
+ */
+public class ContentBundleBenchmark {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final int ROUNDS = 200;
+
+	public static void main(String[] args) throws Exception {
+		Path bundleFile = Files.createTempFile("gameconfs", ".bundle");
+		try {
+			int count = ContentBundle.compile(Paths.get(ContentBundle.CONTENT_DIR), bundleFile);
+			List<String> names = new ArrayList<String>();
+			names(new File(ContentBundle.CONTENT_DIR), "", names);
+
+			ContentBundle bundle = ContentBundle.open(bundleFile);
+			boolean same = count==names.size();
+			for (String name : names) {
+				same &= mapper.readTree(new File(ContentBundle.CONTENT_DIR, name)).equals(bundle.read(name, JsonNode.class));
+			}
+			System.out.println(same ? count+" files, bundle matches the loose files" : "WARNING: bundle differs from the loose files");
+
+			long files = 0, bundled = 0;
+			for (int round = 0; round <= ROUNDS; round++) {
+				long start = System.nanoTime();
+				for (String name : names) mapper.readTree(new File(ContentBundle.CONTENT_DIR, name));
+				long read = System.nanoTime();
+				ContentBundle opened = ContentBundle.open(bundleFile);
+				for (String name : names) opened.read(name, JsonNode.class);
+				long decoded = System.nanoTime();
+				if (round==0) {
+					System.out.println(String.format("first round: loose files %d us, bundle %d us", (read-start)/1000, (decoded-read)/1000));
+				} else {
+					files += read-start;
+					bundled += decoded-read;
+				}
+			}
+			System.out.println(String.format("all content: loose files %d us, bundle %d us (average of %d rounds)",
+					files/ROUNDS/1000, bundled/ROUNDS/1000, ROUNDS));
+		} finally {
+			Files.delete(bundleFile);
+		}
+	}
+
+	private static void names(File directory, String prefix, List<String> names) {
+		for (String filename : directory.list()) {
+			File file = new File(directory, filename);
+			if (file.isDirectory()) names(file, prefix+filename+"/", names);
+			else if (filename.endsWith(".json")) names.add(prefix+filename);
+		}
+	}
+
+}
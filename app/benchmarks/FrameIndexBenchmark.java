@@ -0,0 +1,126 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
+import utils.BasicObjectBuilders;
+
+/**
+ * Checks that the single pass BasicObjectBuilders.indexAnimationFrames gives exactly the
+ * frame paths and indices of the six scans loadUnit used to make over a unit's frames,
+ * for every unit configuration file, and fails listing the differences if it does not.
+ * Then times both.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.FrameIndexBenchmark"
+ *
+ */
+public class FrameIndexBenchmark {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final int ROUNDS = 20000;
+	private static final String[] NAMES = {"idle", "death", "attack", "move", "channel", "hit"};
+
+	public static void main(String[] args) throws Exception {
+		String unitsDIR = "conf/gameconfs/units/";
+		String[] files = new File(unitsDIR).list();
+		Arrays.sort(files);
+		List<UnitAnimationSet> configs = new ArrayList<UnitAnimationSet>();
+		for (String filename : files) {
+			configs.add(mapper.readValue(new File(unitsDIR+filename), Unit.class).getAnimations());
+		}
+
+		int differences = 0;
+		for (int i = 0; i < configs.size(); i++) {
+			UnitAnimationSet before = copy(configs.get(i));
+			UnitAnimationSet after = copy(configs.get(i));
+			legacy(before);
+			BasicObjectBuilders.indexAnimationFrames(after);
+			if (!before.getAllFrames().equals(after.getAllFrames())) {
+				System.out.println(files[i]+": frame paths differ");
+				differences++;
+			}
+			UnitAnimation[] b = animations(before), a = animations(after);
+			for (int j = 0; j < NAMES.length; j++) {
+				if (!Arrays.equals(b[j].getFrameStartEndIndices(), a[j].getFrameStartEndIndices())) {
+					System.out.println(String.format("%-26s %-8s %-10s -> %s", files[i], NAMES[j],
+							Arrays.toString(b[j].getFrameStartEndIndices()), Arrays.toString(a[j].getFrameStartEndIndices())));
+					differences++;
+				}
+			}
+		}
+		if (differences>0) throw new IllegalStateException(differences+" frame indices differ from the six scans");
+		System.out.println(configs.size()+" unit configs, frame indices identical to the six scans");
+
+		for (int round = 0; round < 2; round++) { // the first round warms up
+			long copying = 0, legacy = 0, single = 0;
+			for (int r = 0; r < ROUNDS; r++) {
+				for (UnitAnimationSet config : configs) {
+					long start = System.nanoTime();
+					UnitAnimationSet before = copy(config);
+					UnitAnimationSet after = copy(config);
+					long copied = System.nanoTime();
+					legacy(before);
+					long legacied = System.nanoTime();
+					BasicObjectBuilders.indexAnimationFrames(after);
+					long indexed = System.nanoTime();
+					copying += (copied-start)/2;
+					legacy += legacied-copied;
+					single += indexed-legacied;
+				}
+			}
+			if (round>0) {
+				long ops = (long) ROUNDS*configs.size();
+				System.out.println(String.format("%d unit configs: six scans %d ns/config, single pass %d ns/config (plus %d ns copying the input)",
+						configs.size(), legacy/ops, single/ops, copying/ops));
+			}
+		}
+	}
+
+	private static UnitAnimation[] animations(UnitAnimationSet set) {
+		return new UnitAnimation[] {set.getIdle(), set.getDeath(), set.getAttack(), set.getMove(), set.getChannel(), set.getHit()};
+	}
+
+	private static UnitAnimationSet copy(UnitAnimationSet set) {
+		return new UnitAnimationSet(new ArrayList<String>(set.getAllFrames()), set.getFrameDIR(),
+				copy(set.getIdle()), copy(set.getDeath()), copy(set.getAttack()), copy(set.getMove()), copy(set.getChannel()), copy(set.getHit()));
+	}
+
+	private static UnitAnimation copy(UnitAnimation animation) {
+		return new UnitAnimation(animation.getFrameStartEndIndices().clone(), animation.getFps(), animation.isLoop());
+	}
+
+	/**
+	 * What loadUnit used to do, one scan per animation and then a pass to add the directory
+	 */
+	private static void legacy(UnitAnimationSet animations) {
+		String[] tags = {"_idle_", "_death_", "_attack_", "_run_", "_castloop_", "_hit_"};
+		// the hit frames were written to channel
+		UnitAnimation[] targets = {animations.getIdle(), animations.getDeath(), animations.getAttack(), animations.getMove(), animations.getChannel(), animations.getChannel()};
+		for (int t = 0; t < tags.length; t++) {
+			int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
+			for (String framename: animations.getAllFrames()) {
+				if (framename.contains(tags[t])) {
+					if (startframe==0) { startframe=index; inAnimation=true;}
+				} else {
+					if (inAnimation) { endframe=index-1; break;}
+				}
+				index++;
+			}
+			if (endframe==0) endframe=index;
+			int[] frameIndexes = {startframe, endframe};
+			if (inAnimation) targets[t].setFrameStartEndIndices(frameIndexes);
+		}
+
+		for (int i =0; i<animations.getAllFrames().size(); i++) {
+			animations.getAllFrames().set(i, animations.getFrameDIR()+animations.getAllFrames().get(i));
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import commands.CapturingCommandSink;
+import commands.DiscardingCommandSink;
+
+/**
+ * Plays many copies of the ScriptedGame at once, each as a HeadlessGame with its own
+ * CommandSink, and reports how many games per second one JVM can simulate. Also checks
+ * that games running side by side produce the same commands as a game played alone.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.HeadlessGamesBenchmark 1000"
+ *
+ */
+public class HeadlessGamesBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int games = args.length>0 ? Integer.parseInt(args[0]) : 1000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+		String alone = ScriptedGame.record(true).toString();
+		List<Future<String>> captured = new ArrayList<Future<String>>();
+		for (int i = 0; i < threads*2; i++) {
+			captured.add(pool.submit(() -> ScriptedGame.record(true).toString()));
+		}
+		for (Future<String> game : captured) {
+			if (!game.get().equals(alone)) System.out.println("WARNING: a game run in parallel sent different commands");
+		}
+
+		for (int round = 0; round < 2; round++) { // the first round warms up
+			long start = System.nanoTime();
+			List<Future<?>> running = new ArrayList<Future<?>>();
+			for (int i = 0; i < games; i++) {
+				running.add(pool.submit(() -> ScriptedGame.play(DiscardingCommandSink.INSTANCE, true)));
+			}
+			for (Future<?> game : running) game.get();
+			long ms = (System.nanoTime()-start)/1000000;
+			if (round>0) {
+				System.out.println(String.format("%d games on %d threads in %d ms, %.0f games/s", games, threads, ms, games*1000.0/Math.max(1, ms)));
+			}
+		}
+		pool.shutdown();
+
+		CapturingCommandSink sink = new CapturingCommandSink();
+		ScriptedGame.play(sink, true);
+		System.out.println(sink.getMessages().size()+" messages per game");
+	}
+
+}
@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import play.libs.Json;
+import utils.GameJournal;
+import utils.JournalReader;
+
+/**
+ * Measures what a GameJournal adds per inbound event and per outbound message, using
+ * the commands of the ScriptedGame, and checks that a JournalReader gives back exactly
+ * what was written.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.JournalBenchmark"
+ *
+ */
+public class JournalBenchmark {
+
+	private static final int ROUNDS = 2000;
+
+	public static void main(String[] args) throws Exception {
+		List<ObjectNode> commands = ScriptedGame.record(true);
+		ObjectNode event = Json.newObject();
+		event.put("messagetype", "tileclicked");
+		event.put("tilex", 3);
+		event.put("tiley", 2);
+
+		Path directory = Files.createTempDirectory("journal");
+		try {
+			GameJournal journal = new GameJournal(directory);
+			int measured = ROUNDS-ROUNDS/2; // the first half warms up
+			long[] eventNs = new long[measured];
+			long[] commandNs = new long[measured*commands.size()];
+			for (int round = 0; round < ROUNDS; round++) {
+				int m = round-ROUNDS/2;
+				long start = System.nanoTime();
+				journal.event(event);
+				if (m>=0) eventNs[m] = System.nanoTime()-start;
+				for (int i = 0; i < commands.size(); i++) {
+					start = System.nanoTime();
+					journal.command(commands.get(i));
+					if (m>=0) commandNs[m*commands.size()+i] = System.nanoTime()-start;
+				}
+			}
+			journal.close();
+
+			report("event:  ", eventNs);
+			report("command:", commandNs);
+
+			List<JsonNode> read = new ArrayList<JsonNode>();
+			long start = System.nanoTime();
+			new JournalReader(directory).read(entry -> read.add(entry.getMessage()));
+			long readNs = System.nanoTime()-start;
+			System.out.println(String.format("read:    %6d ns/record, %d records, %d KB on disk", readNs/read.size(), read.size(), size(directory)/1024));
+
+			boolean same = read.size()==ROUNDS*(commands.size()+1);
+			for (int i = 0; same && i < commands.size(); i++) same = read.get(i+1).equals(commands.get(i));
+			System.out.println(same ? "journal read back ok" : "WARNING: journal differs from what was written");
+		} finally {
+			delete(directory);
+		}
+	}
+
+	/**
+	 * Prints the median, 99th percentile and mean. The mean includes starting new
+	 * segments and the first touch of each page, which the percentiles mostly do not.
+	 */
+	private static void report(String name, long[] ns) {
+		long total = 0;
+		for (long n : ns) total += n;
+		long[] sorted = ns.clone();
+		Arrays.sort(sorted);
+		System.out.println(String.format("%s p50 %6d ns  p99 %6d ns  mean %6d ns per record", name,
+				sorted[sorted.length/2], sorted[(int) (sorted.length*0.99)], total/ns.length));
+	}
+
+	private static long size(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.mapToLong(file -> file.toFile().length()).sum();
+		}
+	}
+
+	private static void delete(Path directory) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+
+}
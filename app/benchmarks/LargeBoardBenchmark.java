@@ -0,0 +1,180 @@
+package benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import actors.HeadlessGame;
+import commands.DiscardingCommandSink;
+import managers.UnitManager;
+import play.libs.Json;
+import structures.GameState;
+import structures.basic.BoardGeometry;
+import structures.basic.Tile;
+import structures.basic.Unit;
+import utils.BasicObjectBuilders;
+import utils.StaticConfFiles;
+
+/**
+ * Runs the same rules on boards much larger than the 9x5 one the game is played on, each
+ * filled with a proportionate number of units, to show which rules cost more than they
+ * should as boards and armies grow. For every board it times
+ *
+ * - selecting a unit and clicking away again, as events on a HeadlessGame (highlighting
+ *   the movable and attackable tiles, then the ready units),
+ * - clicking a card, as an event (highlighting the summonable tiles),
+ * - the rule queries on their own, once per unit: canAttack, isProvoked, the movable and
+ *   attackable tiles, a random adjacent empty tile and getUnitById.
+ *
+ * Boards are given as WIDTHxHEIGHT:UNITS, run from the project root, e.g.
+ * sbt "runMain benchmarks.LargeBoardBenchmark 9x5:10 64x64:400"
+ *
+ */
+public class LargeBoardBenchmark {
+
+	private static final String[] DEFAULT_BOARDS = {"9x5:10", "32x32:100", "64x64:400", "128x128:1600"};
+	private static final int EVENTS = 200;
+	private static final int QUERIES = 50000; // units queried per board, at least
+
+	public static void main(String[] args) throws Exception {
+		String[] boards = args.length>0 ? args : DEFAULT_BOARDS;
+		PrintStream console = System.out;
+		PrintStream quiet = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		});
+
+		console.println(String.format("%-14s %12s %12s %12s", "board", "select us", "card us", "unit ns"));
+		for (String board : boards) {
+			String[] size = board.split("[x:]");
+			BoardGeometry geometry = new BoardGeometry(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+			int units = Integer.parseInt(size[2]);
+
+			// the rules print as they go, which would swamp the timings
+			System.setOut(quiet);
+			double[] timings = null;
+			try {
+				for (int round = 0; round < 2; round++) { // the first round warms up
+					timings = run(geometry, units);
+				}
+			} finally {
+				System.setOut(console);
+			}
+			console.println(String.format("%-14s %12.1f %12.1f %12.1f", board, timings[0], timings[1], timings[2]));
+		}
+	}
+
+	/**
+	 * @return microseconds per select, per card click, and nanoseconds for the queries of one unit
+	 */
+	private static double[] run(BoardGeometry geometry, int units) throws InterruptedException {
+		HeadlessGame game = new HeadlessGame(DiscardingCommandSink.INSTANCE, true, geometry);
+		game.processMessage(event("initalize"));
+		GameState gameState = game.getGameState();
+		Random random = new Random(42);
+		List<Unit> own = populate(gameState, units, random);
+
+		// select a unit of player 1, then click an empty tile out of its reach
+		long start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			Unit unit = own.get(i%own.size());
+			game.processMessage(tile(unit.getPosition().getTilex(), unit.getPosition().getTiley()));
+			Tile away = unhighlighted(gameState, random);
+			game.processMessage(tile(away.getTilex(), away.getTiley()));
+		}
+		double select = (System.nanoTime()-start)/1000.0/EVENTS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < EVENTS; i++) {
+			game.processMessage(card(1));
+		}
+		double card = (System.nanoTime()-start)/1000.0/EVENTS;
+
+		List<Unit> all = new ArrayList<Unit>(gameState.playerUnits);
+		int passes = Math.max(1, QUERIES/all.size());
+		int found = 0;
+		start = System.nanoTime();
+		for (int pass = 0; pass < passes; pass++) {
+			for (Unit unit : all) {
+				int x = unit.getPosition().getTilex();
+				int y = unit.getPosition().getTiley();
+				if (unit.canAttack(gameState)) found++;
+				if (gameState.isProvoked(unit)) found++;
+				found += gameState.bitboard.movableTiles(x, y).size();
+				found += gameState.bitboard.attackableTiles(x, y, unit.getOwner()).size();
+				if (UnitManager.getRandomAdjacentEmptyTile(gameState, unit) != null) found++;
+				if (gameState.getUnitById(unit.getId()) == unit) found++;
+			}
+		}
+		double queries = (System.nanoTime()-start)/(double) (passes*all.size());
+		if (found < 0) System.err.println(found); // keeps the queries from being optimised away
+
+		return new double[] {select, card, queries};
+	}
+
+	/**
+	 * Places wraithlings at random on empty tiles, alternating between the players,
+	 * every tenth one with provoke
+	 * @return player 1's units, the avatar included
+	 */
+	private static List<Unit> populate(GameState gameState, int units, Random random) {
+		BoardGeometry geometry = gameState.geometry;
+		for (int i = 0; i < units; i++) {
+			Tile tile;
+			do {
+				tile = gameState.board[random.nextInt(geometry.getWidth())][random.nextInt(geometry.getHeight())];
+			} while (tile.getUnit() != null);
+
+			Unit unit = BasicObjectBuilders.loadUnit(StaticConfFiles.wraithling, gameState.getCurrentUnitId(), Unit.class);
+			unit.setAttack(1);
+			unit.setHealth(1);
+			unit.setOwner(1 + i%2);
+			unit.setSleeping(false);
+			unit.setTile(tile);
+			gameState.playerUnits.add(unit);
+			if (i%10 == 0) gameState.registerProvokeUnit(unit);
+		}
+
+		List<Unit> own = new ArrayList<Unit>();
+		for (Unit unit : gameState.playerUnits) {
+			if (unit.getOwner() == 1) own.add(unit);
+		}
+		return own;
+	}
+
+	/**
+	 * An empty tile that is not highlighted, so clicking it clears the selection
+	 */
+	private static Tile unhighlighted(GameState gameState, Random random) {
+		BoardGeometry geometry = gameState.geometry;
+		while (true) {
+			Tile tile = gameState.board[random.nextInt(geometry.getWidth())][random.nextInt(geometry.getHeight())];
+			if (tile.getUnit() == null && tile.getHighlightStatus() == 0) return tile;
+		}
+	}
+
+	private static ObjectNode event(String type) {
+		ObjectNode message = Json.newObject();
+		message.put("messagetype", type);
+		return message;
+	}
+
+	private static ObjectNode tile(int x, int y) {
+		ObjectNode message = event("tileclicked");
+		message.put("tilex", x);
+		message.put("tiley", y);
+		return message;
+	}
+
+	private static ObjectNode card(int position) {
+		ObjectNode message = event("cardclicked");
+		message.put("position", position);
+		return message;
+	}
+
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import actors.HeadlessGame;
+import commands.CapturingCommandSink;
+import commands.CommandSink;
+import play.libs.Json;
+
+/**
+ * Plays a short, fixed game (start, a few turns, moving avatars, playing the first card
+ * in hand) as a HeadlessGame. Used by the benchmarks that need realistic traffic.
+ *
+ */
+public class ScriptedGame {
+
+	/**
+	 * @param refs whether to use the refs protocol (see EntityRegistry)
+	 * @return the messages sent to the browser, in order
+	 * @throws InterruptedException
+	 */
+	public static List<ObjectNode> record(boolean refs) throws InterruptedException {
+		CapturingCommandSink sink = new CapturingCommandSink();
+		play(sink, refs);
+		return sink.getMessages();
+	}
+
+	/**
+	 * Plays the game, passing its commands to sink
+	 * @param sink
+	 * @param refs
+	 * @return the finished game
+	 * @throws InterruptedException
+	 */
+	public static HeadlessGame play(CommandSink sink, boolean refs) throws InterruptedException {
+		HeadlessGame game = new HeadlessGame(sink, refs);
+		for (JsonNode event : events()) {
+			game.processMessage(event);
+		}
+		return game;
+	}
+
+	private static JsonNode[] events() {
+		return new JsonNode[] {
+			event("initalize"),
+			event("endturnclicked"),
+			event("endturnclicked"),
+			tile(1, 2),
+			tile(2, 2),
+			card(1),
+			tile(3, 2),
+			card(1),
+			tile(3, 3),
+			event("endturnclicked"),
+			tile(7, 2),
+			tile(6, 2),
+			event("endturnclicked"),
+		};
+	}
+
+	private static ObjectNode event(String type) {
+		ObjectNode message = Json.newObject();
+		message.put("messagetype", type);
+		return message;
+	}
+
+	private static ObjectNode tile(int x, int y) {
+		ObjectNode message = event("tileclicked");
+		message.put("tilex", x);
+		message.put("tiley", y);
+		return message;
+	}
+
+	private static ObjectNode card(int position) {
+		ObjectNode message = event("cardclicked");
+		message.put("position", position);
+		return message;
+	}
+
+}
@@ -0,0 +1,188 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import structures.UnitRegistry;
+import structures.basic.Unit;
+
+/**
+ * Checks that a UnitRegistry behaves like the ArrayList GameState.playerUnits used to be
+ * (same units, same order, same answers to contains and lookups by id) through a long
+ * run of random adds and removes, including removes through the iterator and the
+ * compactions they cause, and that it refuses what it should: a second unit with the
+ * same id, and changes while iterating. Then times lookups by id against the ArrayList.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.UnitRegistryBenchmark"
+ *
+ */
+public class UnitRegistryBenchmark {
+
+	private static final int OPERATIONS = 200000;
+	private static final int IDS = 300; // more than fit in the registry's first arrays
+	private static final int LOOKUPS = 2000000;
+
+	public static void main(String[] args) {
+		List<String> failures = new ArrayList<String>();
+		checkAgainstList(failures);
+		checkRefusals(failures);
+		if (failures.isEmpty()) {
+			System.out.println("unit registry ok");
+		} else {
+			for (String failure : failures) System.out.println("WARNING: "+failure);
+		}
+		time();
+	}
+
+	/**
+	 * Applies the same random operations to a UnitRegistry and an ArrayList and compares
+	 * them after each one
+	 */
+	private static void checkAgainstList(List<String> failures) {
+		Random random = new Random(42);
+		Unit[] units = new Unit[IDS];
+		for (int id = 0; id < IDS; id++) units[id] = unit(id);
+
+		UnitRegistry registry = new UnitRegistry();
+		List<Unit> list = new ArrayList<Unit>();
+		for (int i = 0; i < OPERATIONS && failures.isEmpty(); i++) {
+			Unit unit = units[random.nextInt(IDS)];
+			int operation = random.nextInt(10);
+			if (operation < 5) {
+				boolean added = registry.add(unit);
+				if (added != !list.contains(unit)) failures.add("add of unit "+unit.getId()+" returned "+added);
+				if (added) list.add(unit);
+			} else if (operation < 8) {
+				boolean removed = registry.remove(unit);
+				if (removed != list.remove(unit)) failures.add("remove of unit "+unit.getId()+" returned "+removed);
+			} else if (operation < 9) {
+				// remove every unit with an even id, the way GameState iterates and removes
+				Iterator<Unit> it = registry.iterator();
+				while (it.hasNext()) {
+					if (it.next().getId()%2 == 0) it.remove();
+				}
+				list.removeIf(u -> u.getId()%2 == 0);
+			} else if (random.nextInt(100) == 0) {
+				registry.clear();
+				list.clear();
+			}
+			compare(registry, list, units, failures);
+		}
+	}
+
+	private static void compare(UnitRegistry registry, List<Unit> list, Unit[] units, List<String> failures) {
+		if (registry.size() != list.size()) {
+			failures.add("size "+registry.size()+", expected "+list.size());
+			return;
+		}
+		if (!new ArrayList<Unit>(registry).equals(list)) failures.add("units or their order differ from the list");
+		for (Unit unit : units) {
+			boolean expected = list.contains(unit);
+			if (registry.contains(unit) != expected) failures.add("contains of unit "+unit.getId()+" is not "+expected);
+			if ((registry.get(unit.getId()) == unit) != expected) failures.add("get("+unit.getId()+") is wrong");
+		}
+		if (registry.get(-1) != null || registry.get(IDS*10) != null) failures.add("get of an unused id is not null");
+	}
+
+	private static void checkRefusals(List<String> failures) {
+		UnitRegistry registry = new UnitRegistry();
+		registry.add(unit(1));
+		registry.add(unit(2));
+
+		try {
+			registry.add(unit(1));
+			failures.add("a second unit with id 1 was accepted");
+		} catch (IllegalArgumentException e) {
+			// as it should
+		}
+		try {
+			registry.add(unit(-1));
+			failures.add("a negative id was accepted");
+		} catch (IllegalArgumentException e) {
+			// as it should
+		}
+		if (registry.remove(unit(2))) failures.add("a different unit with id 2 was removed");
+
+		try {
+			for (Unit unit : registry) registry.remove(unit);
+			failures.add("removing while iterating did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e) {
+			// as it should
+		}
+		try {
+			for (Unit unit : registry) {
+				if (unit.getId() == 2) registry.add(unit(3));
+			}
+			failures.add("adding while iterating did not throw ConcurrentModificationException");
+		} catch (ConcurrentModificationException e) {
+			// as it should
+		}
+
+		Iterator<Unit> it = registry.iterator();
+		try {
+			it.remove();
+			failures.add("iterator remove before next did not throw IllegalStateException");
+		} catch (IllegalStateException e) {
+			// as it should
+		}
+		it.next();
+		it.remove();
+		try {
+			it.remove();
+			failures.add("iterator remove twice did not throw IllegalStateException");
+		} catch (IllegalStateException e) {
+			// as it should
+		}
+	}
+
+	/**
+	 * Looks units up by id the way getUnitById did (a walk over the list) and with the
+	 * registry, for a board's worth of units
+	 */
+	private static void time() {
+		for (int count : new int[] {10, 100, 1000}) {
+			UnitRegistry registry = new UnitRegistry();
+			List<Unit> list = new ArrayList<Unit>();
+			for (int id = 0; id < count; id++) {
+				Unit unit = unit(id);
+				registry.add(unit);
+				list.add(unit);
+			}
+			Random random = new Random(42);
+			int[] ids = new int[LOOKUPS];
+			for (int i = 0; i < LOOKUPS; i++) ids[i] = random.nextInt(count);
+
+			double listNs = 0, registryNs = 0;
+			int found = 0;
+			for (int round = 0; round < 2; round++) { // the first round warms up
+				long start = System.nanoTime();
+				for (int id : ids) {
+					for (Unit unit : list) {
+						if (unit.getId() == id) {
+							found++;
+							break;
+						}
+					}
+				}
+				listNs = (System.nanoTime()-start)/(double) LOOKUPS;
+				start = System.nanoTime();
+				for (int id : ids) {
+					if (registry.get(id) != null) found++;
+				}
+				registryNs = (System.nanoTime()-start)/(double) LOOKUPS;
+			}
+			if (found < 0) System.err.println(found); // keeps the lookups from being optimised away
+			System.out.println(String.format("%5d units: list %8.1f ns, registry %5.1f ns per lookup", count, listNs, registryNs));
+		}
+	}
+
+	private static Unit unit(int id) {
+		Unit unit = new Unit();
+		unit.setId(id);
+		return unit;
+	}
+
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import commands.BinaryEncoding;
+
+/**
+ * Compares the JSON text frames sent to the browser with the optional CBOR frames
+ * (BinaryEncoding) for the same recorded game, for both the json and refs protocols.
+ * Reports total bytes on the wire and the time to encode and decode every frame once.
+ *
+ * Run from the project root, e.g. sbt "runMain benchmarks.WireEncodingBenchmark"
+ *
+ */
+public class WireEncodingBenchmark {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	private static final int ROUNDS = 200;
+
+	public static void main(String[] args) throws Exception {
+		for (boolean refs : new boolean[] {false, true}) {
+			List<ObjectNode> game = ScriptedGame.record(refs);
+
+			long jsonBytes = 0, cborBytes = 0;
+			for (ObjectNode message : game) {
+				byte[] json = mapper.writeValueAsBytes(message);
+				byte[] cbor = BinaryEncoding.encode(message);
+				if (!BinaryEncoding.decode(cbor).equals(mapper.readTree(json))) {
+					System.out.println("WARNING: CBOR round trip differs for "+message.get("messagetype"));
+				}
+				jsonBytes += json.length;
+				cborBytes += cbor.length;
+			}
+
+			for (int i = 0; i < ROUNDS; i++) { json(game); cbor(game); } // warm up
+			long[] json = new long[2], cbor = new long[2];
+			for (int i = 0; i < ROUNDS; i++) {
+				long[] j = json(game), c = cbor(game);
+				json[0] += j[0]; json[1] += j[1];
+				cbor[0] += c[0]; cbor[1] += c[1];
+			}
+
+			System.out.println(String.format("%-5s protocol, %d frames", refs ? "refs" : "json", game.size()));
+			System.out.println(String.format("  json: %8d bytes  encode %6d us  decode %6d us", jsonBytes, json[0]/ROUNDS/1000, json[1]/ROUNDS/1000));
+			System.out.println(String.format("  cbor: %8d bytes  encode %6d us  decode %6d us", cborBytes, cbor[0]/ROUNDS/1000, cbor[1]/ROUNDS/1000));
+		}
+	}
+
+	/** @return ns to encode, ns to decode every frame as JSON text */
+	private static long[] json(List<ObjectNode> game) throws Exception {
+		byte[][] frames = new byte[game.size()][];
+		long start = System.nanoTime();
+		for (int i = 0; i < frames.length; i++) frames[i] = mapper.writeValueAsBytes(game.get(i));
+		long encoded = System.nanoTime();
+		JsonNode last = null;
+		for (byte[] frame : frames) last = mapper.readTree(frame);
+		long decoded = System.nanoTime();
+		if (last==null) throw new IllegalStateException();
+		return new long[] {encoded-start, decoded-encoded};
+	}
+
+	/** @return ns to encode, ns to decode every frame as CBOR */
+	private static long[] cbor(List<ObjectNode> game) {
+		byte[][] frames = new byte[game.size()][];
+		long start = System.nanoTime();
+		for (int i = 0; i < frames.length; i++) frames[i] = BinaryEncoding.encode(game.get(i));
+		long encoded = System.nanoTime();
+		JsonNode last = null;
+		for (byte[] frame : frames) last = BinaryEncoding.decode(frame);
+		long decoded = System.nanoTime();
+		if (last==null) throw new IllegalStateException();
+		return new long[] {encoded-start, decoded-encoded};
+	}
+
+}
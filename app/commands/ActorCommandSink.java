@@ -0,0 +1,24 @@
+package commands;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import akka.actor.ActorRef;
+
+/**
+ * Sends commands to the browser through the websocket's ActorRef
+ *
+ */
+public class ActorCommandSink implements CommandSink {
+
+	private final ActorRef out;
+
+	public ActorCommandSink(ActorRef out) {
+		this.out = out;
+	}
+
+	@Override
+	public void tell(ObjectNode message) {
+		out.tell(message, out);
+	}
+
+}
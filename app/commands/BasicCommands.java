@@ -1,6 +1,6 @@
 package commands;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import akka.actor.ActorRef;
@@ -23,12 +23,9 @@ import structures.basic.UnitAnimationType;
  */
 public class BasicCommands {
 
-	private static ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to turn java objects to Strings
-	
-	// An alternative class with a 'tell' implementation can be given if writing unit tests
-	// and need to have a null ActorRef. This should be null during normal operation.
-	public static DummyTell altTell = null;
-	
+	// Commands are queued on the Timeline bound to the current thread, which hands them to
+	// the game's CommandSink. For tests and headless games give the Timeline a
+	// CapturingCommandSink or DiscardingCommandSink (see actors.HeadlessGame).
 	
 	/**
 	 * You can consider the contents of the user’s browser window a canvas that can be drawn upon. drawTile will draw 
@@ -39,20 +36,33 @@ public class BasicCommands {
 	 * @param tile
 	 * @param mode
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void drawTile(ActorRef out, Tile tile, int mode) {
 		try {
-			ObjectNode returnMessage = Json.newObject();
-			returnMessage.put("messagetype", "drawTile");
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			returnMessage.put("mode", mode);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			// during game processing only changed tiles are sent, see BoardRenderModel
+			Timeline timeline = bound(out);
+			if (timeline!=null && timeline.getBoard().draw(tile, mode)) return;
+			
+			send(timeline, out, drawTileMessage(registry(timeline), tile, mode));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Builds the drawTile command without queuing or sending it
+	 * @param registry the EntityRegistry of the game, or null to send the tile in full
+	 * @param tile
+	 * @param mode
+	 * @return
+	 */
+	public static ObjectNode drawTileMessage(EntityRegistry registry, Tile tile, int mode) {
+		ObjectNode returnMessage = Json.newObject();
+		returnMessage.put("messagetype", "drawTile");
+		returnMessage.set("tile", registry==null ? CommandEncoder.tile(tile) : registry.tile(tile));
+		returnMessage.put("mode", mode);
+		return returnMessage;
+	}
+	
 	/**
 	 * drawUnit will draw the sprite for a unit (a picture of that unit with its attack and health values) on the board. 
 	 * This command takes as input a target Tile (a ‘square’ of the main game grid) to place the unit’s sprite upon, 
@@ -61,15 +71,15 @@ public class BasicCommands {
 	 * @param unit
 	 * @param tile
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void drawUnit(ActorRef out, Unit unit, Tile tile) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "drawUnit");
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			EntityRegistry registry = registry(timeline);
+			returnMessage.set("tile", registry==null ? CommandEncoder.tile(tile) : registry.tile(tile));
+			returnMessage.set("unit", registry==null ? CommandEncoder.unit(unit) : registry.register(unit));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -82,15 +92,14 @@ public class BasicCommands {
 	 * @param unit
 	 * @param attack
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setUnitAttack(ActorRef out, Unit unit, int attack) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setUnitAttack");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			returnMessage.set("unit", unitPayload(timeline, unit));
 			returnMessage.put("attack", attack);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -103,15 +112,14 @@ public class BasicCommands {
 	 * @param unit
 	 * @param health
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setUnitHealth(ActorRef out, Unit unit, int health) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setUnitHealth");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			returnMessage.set("unit", unitPayload(timeline, unit));
 			returnMessage.put("health", health);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -124,15 +132,14 @@ public class BasicCommands {
 	 * @param unit
 	 * @param tile
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void moveUnitToTile(ActorRef out, Unit unit, Tile tile) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "moveUnitToTile");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("unit", unitPayload(timeline, unit));
+			returnMessage.set("tile", tilePayload(timeline, tile));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -147,16 +154,15 @@ public class BasicCommands {
 	 * @param unit
 	 * @param tile
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void moveUnitToTile(ActorRef out, Unit unit, Tile tile, boolean yfirst) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "moveUnitToTile");
 			returnMessage.put("yfirst", yfirst);
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("unit", unitPayload(timeline, unit));
+			returnMessage.set("tile", tilePayload(timeline, tile));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -173,18 +179,17 @@ public class BasicCommands {
 	 * @param unit
 	 * @param animation
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static int playUnitAnimation(ActorRef out, Unit unit, UnitAnimationType animationToPlay) {
 		try {
+			Timeline timeline = bound(out);
 			
 			unit.setAnimation(animationToPlay);
 			
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "playUnitAnimation");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
+			returnMessage.set("unit", unitPayload(timeline, unit));
 			returnMessage.put("animation", animationToPlay.toString());
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 			
 			// estimate the time needed for the animation to play
 			UnitAnimation animation = null;
@@ -211,14 +216,15 @@ public class BasicCommands {
 	 * @param out
 	 * @param unit
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void deleteUnit(ActorRef out, Unit unit) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "deleteUnit");
-			returnMessage.put("unit", mapper.readTree(mapper.writeValueAsString(unit)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("unit", unitPayload(timeline, unit));
+			EntityRegistry registry = registry(timeline);
+			if (registry!=null) registry.forget(unit);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -231,14 +237,13 @@ public class BasicCommands {
 	 * @param out
 	 * @param player
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setPlayer1Health(ActorRef out, Player player) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer1Health");
-			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("player", CommandEncoder.player(player));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -251,14 +256,13 @@ public class BasicCommands {
 	 * @param out
 	 * @param player
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setPlayer2Health(ActorRef out, Player player) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer2Health");
-			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("player", CommandEncoder.player(player));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -271,14 +275,13 @@ public class BasicCommands {
 	 * @param out
 	 * @param player
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setPlayer1Mana(ActorRef out, Player player) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer1Mana");
-			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("player", CommandEncoder.player(player));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -291,14 +294,13 @@ public class BasicCommands {
 	 * @param out
 	 * @param player
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void setPlayer2Mana(ActorRef out, Player player) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "setPlayer2Mana");
-			returnMessage.put("player", mapper.readTree(mapper.writeValueAsString(player)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			returnMessage.set("player", CommandEncoder.player(player));
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -313,16 +315,15 @@ public class BasicCommands {
 	 * @param position
 	 * @param mode
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void drawCard(ActorRef out, Card card, int position, int mode) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "drawCard");
-			returnMessage.put("card", mapper.readTree(mapper.writeValueAsString(card)));
+			returnMessage.set("card", CommandEncoder.card(card));
 			returnMessage.put("position", position);
 			returnMessage.put("mode", mode);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -335,11 +336,11 @@ public class BasicCommands {
 	 */
 	public static void deleteCard(ActorRef out, int position) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "deleteCard");
 			returnMessage.put("position", position);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -354,15 +355,14 @@ public class BasicCommands {
 	 * @param effect
 	 * @param tile
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static int playEffectAnimation(ActorRef out, EffectAnimation effect, Tile tile) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "playEffectAnimation");
-			returnMessage.put("effect", mapper.readTree(mapper.writeValueAsString(effect)));
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(tile)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			effectPayload(timeline, returnMessage, effect);
+			returnMessage.set("tile", tilePayload(timeline, tile));
+			send(timeline, out, returnMessage);
 			
 			return ((1000*effect.getAnimationTextures().size())/effect.getFps())+50;
 		} catch (Exception e) {
@@ -381,12 +381,12 @@ public class BasicCommands {
 	 */
 	public static void addPlayer1Notification(ActorRef out, String text, int displayTimeSeconds) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "addPlayer1Notification");
 			returnMessage.put("text", text);
 			returnMessage.put("seconds", displayTimeSeconds);
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -398,20 +398,80 @@ public class BasicCommands {
 	 * @param effect
 	 * @param tile
 	 */
-	@SuppressWarnings({"deprecation"})
 	public static void playProjectileAnimation(ActorRef out, EffectAnimation effect, int mode, Tile startTile, Tile targetTile) {
 		try {
+			Timeline timeline = bound(out);
 			ObjectNode returnMessage = Json.newObject();
 			returnMessage.put("messagetype", "drawProjectile");
-			returnMessage.put("effect", mapper.readTree(mapper.writeValueAsString(effect)));
-			returnMessage.put("tile", mapper.readTree(mapper.writeValueAsString(startTile)));
-			returnMessage.put("targetTile", mapper.readTree(mapper.writeValueAsString(targetTile)));
-			returnMessage.put("mode", mapper.readTree(mapper.writeValueAsString(mode)));
-			if (altTell!=null) altTell.tell(returnMessage);
-			else out.tell(returnMessage, out);
+			effectPayload(timeline, returnMessage, effect);
+			returnMessage.set("tile", tilePayload(timeline, startTile));
+			returnMessage.set("targetTile", tilePayload(timeline, targetTile));
+			returnMessage.put("mode", mode);
+			send(timeline, out, returnMessage);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
-}
+	/**
+	 * Waits for ms milliseconds before the commands that follow are shown, e.g. to let an
+	 * animation finish. When a Timeline is bound (i.e. during normal game processing) this
+	 * does not block, the following commands are simply scheduled ms later. Otherwise
+	 * the thread sleeps.
+	 * @param out
+	 * @param ms
+	 */
+	public static void pause(ActorRef out, int ms) {
+		Timeline timeline = bound(out);
+		if (timeline!=null) timeline.pause(ms);
+		else {
+			try {Thread.sleep(ms);} catch (InterruptedException e) {e.printStackTrace();}
+		}
+	}
+	
+	/**
+	 * @return the Timeline bound to this thread for out, or null if commands should be
+	 * sent straight to the browser. Each command looks it up once and passes it on.
+	 */
+	private static Timeline bound(ActorRef out) {
+		Timeline timeline = Timeline.current();
+		return timeline!=null && timeline.isFor(out) ? timeline : null;
+	}
+	
+	/**
+	 * @return the EntityRegistry of the bound timeline, or null if entities should always
+	 * be sent in full
+	 */
+	private static EntityRegistry registry(Timeline timeline) {
+		return timeline==null ? null : timeline.getRegistry();
+	}
+	
+	private static JsonNode unitPayload(Timeline timeline, Unit unit) {
+		EntityRegistry registry = registry(timeline);
+		return registry==null ? CommandEncoder.unit(unit) : registry.unit(unit);
+	}
+	
+	private static JsonNode tilePayload(Timeline timeline, Tile tile) {
+		EntityRegistry registry = registry(timeline);
+		return registry==null ? CommandEncoder.tile(tile) : registry.tile(tile);
+	}
+	
+	private static void effectPayload(Timeline timeline, ObjectNode returnMessage, EffectAnimation effect) {
+		EntityRegistry registry = registry(timeline);
+		if (registry==null) returnMessage.set("effect", CommandEncoder.effect(effect));
+		else registry.effect(returnMessage, effect);
+	}
+	
+	/**
+	 * Queues a finished command on the bound Timeline, or sends it straight to the browser
+	 * if no timeline is bound for out
+	 * @param timeline the bound timeline, or null
+	 * @param out
+	 * @param returnMessage
+	 */
+	private static void send(Timeline timeline, ActorRef out, ObjectNode returnMessage) {
+		if (timeline!=null) timeline.add(returnMessage);
+		else out.tell(returnMessage, out);
+	}
+	
+}
\ No newline at end of file
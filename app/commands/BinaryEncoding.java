@@ -0,0 +1,62 @@
+package commands;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Converts websocket messages between the JsonNode trees used by the GameActor and CBOR
+ * (RFC 8949), a binary encoding of the same data model as JSON. A browser chooses it
+ * when it connects (ws://.../gamews?encoding=cbor) and decodes it with js/cbor.js. CBOR
+ * frames are smaller than the equivalent JSON text (numbers and booleans are packed, no
+ * quoting or escaping) and are quicker to produce and parse.
+ *
+ * Plain JSON text frames remain the default.
+ *
+ */
+public class BinaryEncoding {
+
+	public static final String CBOR = "cbor";
+	public static final String JSON = "json";
+
+	private static final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+	public static byte[] encode(JsonNode message) {
+		try {
+			return cborMapper.writeValueAsBytes(message);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes message to stream as CBOR, without an intermediate array
+	 * @param message
+	 * @param stream
+	 * @throws IOException
+	 */
+	public static void encode(JsonNode message, OutputStream stream) throws IOException {
+		cborMapper.writeValue(stream, message);
+	}
+
+	public static JsonNode decode(byte[] bytes) {
+		try {
+			return cborMapper.readTree(bytes);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public static JsonNode decode(byte[] bytes, int offset, int length) {
+		try {
+			return cborMapper.readTree(bytes, offset, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
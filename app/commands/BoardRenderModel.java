@@ -0,0 +1,88 @@
+package commands;
+
+import java.util.Arrays;
+
+import structures.basic.BoardGeometry;
+import structures.basic.Tile;
+
+/**
+ * Remembers which mode each board tile was last drawn in, so that drawTile is only sent
+ * when the mode actually changes.
+ *
+ * Highlighting code tends to clear and re-highlight the same tiles after every action
+ * (clearMovableTiles, clearAttackableTiles, highlightPlayer1ReadyUnits, ...). While a
+ * Timeline is bound, BasicCommands.drawTile records the wanted mode here instead of
+ * sending it. When the game logic pauses, or the event has been processed, flush()
+ * compares each touched tile against what the browser already shows and queues a
+ * drawTile only for the tiles that differ.
+ *
+ * It covers the board of the game's BoardGeometry, whatever its size.
+ *
+ */
+public class BoardRenderModel {
+
+	private static final int NOT_DRAWN = -1;
+
+	private final BoardGeometry geometry;
+
+	private final int[] shownMode; // the mode the browser has (or will have) for each tile
+	private final int[] wantedMode; // the mode the game logic last asked for
+	private final Tile[] tiles; // the tile object to send for each cell
+
+	private final int[] touched; // cells changed since the last flush, in order
+	private final boolean[] isTouched;
+	private int touchedCount = 0;
+
+	public BoardRenderModel(BoardGeometry geometry) {
+		this.geometry = geometry;
+		int cells = geometry.getCells();
+		shownMode = new int[cells];
+		wantedMode = new int[cells];
+		tiles = new Tile[cells];
+		touched = new int[cells];
+		isTouched = new boolean[cells];
+		Arrays.fill(shownMode, NOT_DRAWN);
+	}
+
+	/**
+	 * Records that tile should be drawn in mode.
+	 * @param tile
+	 * @param mode
+	 * @return false if the tile is not on this board, in which case it should be sent as normal
+	 */
+	public boolean draw(Tile tile, int mode) {
+		if (tile==null) return false;
+		int cell = geometry.cell(tile.getTilex(), tile.getTiley());
+		if (cell<0) return false;
+
+		tiles[cell] = tile;
+		wantedMode[cell] = mode;
+		if (!isTouched[cell]) {
+			isTouched[cell] = true;
+			touched[touchedCount++] = cell;
+		}
+		return true;
+	}
+
+	/**
+	 * Queues a drawTile on the timeline for every touched tile whose mode differs from
+	 * the one last sent.
+	 * @param timeline
+	 * @return the number of drawTile commands queued
+	 */
+	public int flush(Timeline timeline) {
+		int sent = 0;
+		for (int i = 0; i < touchedCount; i++) {
+			int cell = touched[i];
+			isTouched[cell] = false;
+			if (wantedMode[cell]!=shownMode[cell]) {
+				shownMode[cell] = wantedMode[cell];
+				timeline.add(BasicCommands.drawTileMessage(timeline.getRegistry(), tiles[cell], wantedMode[cell]));
+				sent++;
+			}
+		}
+		touchedCount = 0;
+		return sent;
+	}
+
+}
@@ -0,0 +1,26 @@
+package commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Keeps every command in memory, in the order they were sent, e.g. to check or replay
+ * what a headless game would have shown
+ *
+ */
+public class CapturingCommandSink implements CommandSink {
+
+	private final List<ObjectNode> messages = new ArrayList<ObjectNode>();
+
+	@Override
+	public void tell(ObjectNode message) {
+		messages.add(message);
+	}
+
+	public List<ObjectNode> getMessages() {
+		return messages;
+	}
+
+}
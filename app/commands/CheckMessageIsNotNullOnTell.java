@@ -4,7 +4,7 @@ import static org.junit.Assert.assertNotNull;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
-public class CheckMessageIsNotNullOnTell implements DummyTell {
+public class CheckMessageIsNotNullOnTell implements CommandSink {
 
 	@Override
 	public void tell(ObjectNode message) {
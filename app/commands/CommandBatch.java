@@ -0,0 +1,52 @@
+package commands;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import play.libs.Json;
+
+/**
+ * A group of commands that should reach the browser at the same moment. It is sent as a
+ * single "batch" message (or as the plain command if there is only one) and
+ * cardgame.js applies every command in it, in order, in one pass.
+ *
+ * Batches are built up by a Timeline: everything issued between two pauses of the game
+ * logic ends up in the same batch.
+ *
+ */
+public class CommandBatch {
+
+	private final long dueAt;
+	private final ArrayNode commands = Json.newArray();
+
+	public CommandBatch(long dueAt) {
+		this.dueAt = dueAt;
+	}
+
+	/**
+	 * @return the time (System.currentTimeMillis) at which this batch should be sent
+	 */
+	public long getDueAt() {
+		return dueAt;
+	}
+
+	public void add(ObjectNode command) {
+		commands.add(command);
+	}
+
+	public int size() {
+		return commands.size();
+	}
+
+	/**
+	 * @return the message to send to the browser for this batch
+	 */
+	public ObjectNode toMessage() {
+		if (commands.size()==1) return (ObjectNode) commands.get(0);
+		ObjectNode batchMessage = Json.newObject();
+		batchMessage.put("messagetype", "batch");
+		batchMessage.set("commands", commands);
+		return batchMessage;
+	}
+
+}
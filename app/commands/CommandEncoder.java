@@ -0,0 +1,273 @@
+package commands;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import structures.basic.BigCard;
+import structures.basic.Card;
+import structures.basic.EffectAnimation;
+import structures.basic.ImageCorrection;
+import structures.basic.MiniCard;
+import structures.basic.Player;
+import structures.basic.Position;
+import structures.basic.Tile;
+import structures.basic.TileDefinition;
+import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
+
+/**
+ * Builds the JSON trees embedded in outbound commands directly from the game objects.
+ *
+ * BasicCommands used to turn each object into a String with the ObjectMapper and then parse
+ * that String back into a JsonNode, which meant two full passes (and a throw-away String)
+ * for every tile, unit or card sent to the browser. The methods here read the getters once
+ * and produce the same tree the mapper would have produced, so the payload seen by
+ * cardgame.js is unchanged.
+ *
+ * Only properties that Jackson would serialise are written (i.e. fields marked @JsonIgnore
+ * such as Tile.unit or Unit.tile are skipped).
+ *
+ * The parts that come from the config files (tile textures, unit animation sets and image
+ * corrections, mini/big card art, effects) are encoded once and then reused from a
+ * PayloadCache, so a command only pays for its changing fields (health, attack,
+ * position, mode, ...).
+ *
+ */
+public class CommandEncoder {
+
+	private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+	private static final PayloadCache<TileDefinition> tileTextureCache = new PayloadCache<TileDefinition>(definition -> strings(definition.getTileTextures()));
+	private static final PayloadCache<UnitAnimationSet> animationsCache = new PayloadCache<UnitAnimationSet>(CommandEncoder::animations);
+	private static final PayloadCache<ImageCorrection> correctionCache = new PayloadCache<ImageCorrection>(CommandEncoder::correction);
+	private static final PayloadCache<MiniCard> miniCardCache = new PayloadCache<MiniCard>(CommandEncoder::miniCard);
+	private static final PayloadCache<BigCard> bigCardCache = new PayloadCache<BigCard>(CommandEncoder::bigCard);
+	private static final PayloadCache<EffectAnimation> effectCache = new PayloadCache<EffectAnimation>(CommandEncoder::encodeEffect);
+
+	public static ObjectNode tile(Tile tile) {
+		if (tile==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.set("tileTextures", tileTextureCache.get(tile.getDefinition(), 0));
+		node.put("xpos", tile.getXpos());
+		node.put("ypos", tile.getYpos());
+		node.put("width", tile.getWidth());
+		node.put("height", tile.getHeight());
+		node.put("tilex", tile.getTilex());
+		node.put("tiley", tile.getTiley());
+		node.put("highlightStatus", tile.getHighlightStatus());
+		return node;
+	}
+
+	public static ObjectNode unit(Unit unit) {
+		if (unit==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.put("health", unit.getHealth());
+		node.put("attack", unit.getAttack());
+		node.put("id", unit.getId());
+		if (unit.getAnimation()==null) node.putNull("animation");
+		else node.put("animation", unit.getAnimation().toString());
+		node.set("correction", correctionCache.get(unit.getCorrection(), version(unit.getCorrection())));
+		node.set("position", position(unit.getPosition()));
+		node.set("animations", animationsCache.get(unit.getAnimations(), version(unit.getAnimations())));
+		node.put("owner", unit.getOwner());
+		return node;
+	}
+
+	public static ObjectNode player(Player player) {
+		if (player==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.put("health", player.getHealth());
+		node.put("mana", player.getMana());
+		return node;
+	}
+
+	public static ObjectNode card(Card card) {
+		if (card==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.put("id", card.getId());
+		node.put("cardname", card.getCardname());
+		node.put("manacost", card.getManacost());
+		node.set("miniCard", miniCardCache.get(card.getMiniCard(), version(card.getMiniCard())));
+		node.set("bigCard", bigCardCache.get(card.getBigCard(), version(card.getBigCard())));
+		node.put("creature", card.isCreature());
+		node.put("isCreature", card.getIsCreature());
+		node.put("unitConfig", card.getUnitConfig());
+		node.put("attack", card.getAttack());
+		node.put("health", card.getHealth());
+		return node;
+	}
+
+	/**
+	 * Effects have no per-call state, so the whole node comes from the cache. It must
+	 * not be modified.
+	 */
+	public static JsonNode effect(EffectAnimation effect) {
+		if (effect==null) return null;
+		return effectCache.get(effect, version(effect));
+	}
+
+	private static ObjectNode encodeEffect(EffectAnimation effect) {
+		ObjectNode node = nodes.objectNode();
+		node.set("animationTextures", strings(effect.getAnimationTextures()));
+		node.set("correction", correction(effect.getCorrection()));
+		node.put("fps", effect.getFps());
+		return node;
+	}
+
+	public static ObjectNode position(Position position) {
+		if (position==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.put("xpos", position.getXpos());
+		node.put("ypos", position.getYpos());
+		node.put("tilex", position.getTilex());
+		node.put("tiley", position.getTiley());
+		return node;
+	}
+
+	public static ObjectNode correction(ImageCorrection correction) {
+		if (correction==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.put("imgWidth", correction.getImgWidth());
+		node.put("imgHeight", correction.getImgHeight());
+		node.put("spriteTopLeftX", correction.getSpriteTopLeftX());
+		node.put("spriteTopLeftY", correction.getSpriteTopLeftY());
+		node.put("offsetX", correction.getOffsetX());
+		node.put("offsetY", correction.getOffsetY());
+		node.put("scale", correction.getScale());
+		node.put("reflected", correction.isReflected());
+		return node;
+	}
+
+	public static ObjectNode animations(UnitAnimationSet animations) {
+		if (animations==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.set("allFrames", strings(animations.getAllFrames()));
+		node.put("frameDIR", animations.getFrameDIR());
+		node.set("idle", animation(animations.getIdle()));
+		node.set("death", animation(animations.getDeath()));
+		node.set("attack", animation(animations.getAttack()));
+		node.set("move", animation(animations.getMove()));
+		node.set("channel", animation(animations.getChannel()));
+		node.set("hit", animation(animations.getHit()));
+		return node;
+	}
+
+	public static ObjectNode animation(UnitAnimation animation) {
+		if (animation==null) return null;
+		ObjectNode node = nodes.objectNode();
+		int[] indices = animation.getFrameStartEndIndices();
+		if (indices==null) node.putNull("frameStartEndIndices");
+		else {
+			ArrayNode array = node.putArray("frameStartEndIndices");
+			for (int index : indices) array.add(index);
+		}
+		node.put("fps", animation.getFps());
+		node.put("loop", animation.isLoop());
+		return node;
+	}
+
+	public static ObjectNode miniCard(MiniCard miniCard) {
+		if (miniCard==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.set("cardTextures", strings(miniCard.getCardTextures()));
+		node.set("animationFrames", strings(miniCard.getAnimationFrames()));
+		node.put("fps", miniCard.getFps());
+		node.put("index", miniCard.getIndex());
+		return node;
+	}
+
+	public static ObjectNode bigCard(BigCard bigCard) {
+		if (bigCard==null) return null;
+		ObjectNode node = nodes.objectNode();
+		node.set("cardTextures", strings(bigCard.getCardTextures()));
+		node.set("rulesTextRows", strings(bigCard.getRulesTextRows()));
+		node.put("attack", bigCard.getAttack());
+		node.put("health", bigCard.getHealth());
+		return node;
+	}
+
+	// The version numbers below change whenever a field that ends up in the cached JSON is
+	// replaced. Lists and arrays are compared by identity, the config loaders replace
+	// them rather than editing them once an object is in use.
+
+	private static int version(UnitAnimationSet animations) {
+		if (animations==null) return 0;
+		int version = System.identityHashCode(animations.getAllFrames());
+		version = 31*version + System.identityHashCode(animations.getFrameDIR());
+		version = 31*version + version(animations.getIdle());
+		version = 31*version + version(animations.getDeath());
+		version = 31*version + version(animations.getAttack());
+		version = 31*version + version(animations.getMove());
+		version = 31*version + version(animations.getChannel());
+		version = 31*version + version(animations.getHit());
+		return version;
+	}
+
+	private static int version(UnitAnimation animation) {
+		if (animation==null) return 0;
+		int version = System.identityHashCode(animation);
+		version = 31*version + System.identityHashCode(animation.getFrameStartEndIndices());
+		version = 31*version + animation.getFps();
+		version = 31*version + (animation.isLoop()?1:0);
+		return version;
+	}
+
+	private static int version(ImageCorrection correction) {
+		if (correction==null) return 0;
+		int version = Double.hashCode(correction.getImgWidth());
+		version = 31*version + Double.hashCode(correction.getImgHeight());
+		version = 31*version + Double.hashCode(correction.getSpriteTopLeftX());
+		version = 31*version + Double.hashCode(correction.getSpriteTopLeftY());
+		version = 31*version + Double.hashCode(correction.getOffsetX());
+		version = 31*version + Double.hashCode(correction.getOffsetY());
+		version = 31*version + Double.hashCode(correction.getScale());
+		version = 31*version + (correction.isReflected()?1:0);
+		return version;
+	}
+
+	private static int version(MiniCard miniCard) {
+		if (miniCard==null) return 0;
+		int version = System.identityHashCode(miniCard.getCardTextures());
+		version = 31*version + System.identityHashCode(miniCard.getAnimationFrames());
+		version = 31*version + miniCard.getFps();
+		version = 31*version + miniCard.getIndex();
+		return version;
+	}
+
+	private static int version(BigCard bigCard) {
+		if (bigCard==null) return 0;
+		int version = System.identityHashCode(bigCard.getCardTextures());
+		version = 31*version + System.identityHashCode(bigCard.getRulesTextRows());
+		version = 31*version + bigCard.getAttack();
+		version = 31*version + bigCard.getHealth();
+		return version;
+	}
+
+	private static int version(EffectAnimation effect) {
+		int version = System.identityHashCode(effect.getAnimationTextures());
+		version = 31*version + System.identityHashCode(effect.getCorrection());
+		version = 31*version + version(effect.getCorrection());
+		version = 31*version + effect.getFps();
+		return version;
+	}
+
+	private static ArrayNode strings(List<String> values) {
+		if (values==null) return null;
+		ArrayNode array = nodes.arrayNode(values.size());
+		for (String value : values) array.add(value);
+		return array;
+	}
+
+	private static ArrayNode strings(String[] values) {
+		if (values==null) return null;
+		ArrayNode array = nodes.arrayNode(values.length);
+		for (String value : values) array.add(value);
+		return array;
+	}
+
+}
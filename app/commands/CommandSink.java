@@ -0,0 +1,22 @@
+package commands;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Where the commands of one game end up. A game played in a browser sends them to its
+ * websocket actor (ActorCommandSink); a game without a browser, e.g. in a simulation or
+ * load test, can keep them (CapturingCommandSink) or throw them away (DiscardingCommandSink).
+ *
+ * The sink belongs to the game's Timeline, so every game can have its own and any
+ * number of games can run side by side in one JVM.
+ *
+ */
+public interface CommandSink {
+
+	/**
+	 * Called with each message (a command or a batch of them) when it is due
+	 * @param message
+	 */
+	public void tell(ObjectNode message);
+
+}
@@ -0,0 +1,17 @@
+package commands;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Throws every command away, for headless games where only the game state matters
+ *
+ */
+public class DiscardingCommandSink implements CommandSink {
+
+	public static final DiscardingCommandSink INSTANCE = new DiscardingCommandSink();
+
+	@Override
+	public void tell(ObjectNode message) {
+	}
+
+}
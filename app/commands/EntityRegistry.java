@@ -0,0 +1,105 @@
+package commands;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import structures.basic.EffectAnimation;
+import structures.basic.Tile;
+import structures.basic.Unit;
+
+/**
+ * Tracks which units, tiles and effects a browser has already been sent in full, for
+ * connections that asked for the "refs" protocol (ws://.../gamews?protocol=refs). The
+ * protocol is opt-in: the game screen only asks for it when it is itself opened with
+ * ?protocol=refs, otherwise every command carries its entities in full as before.
+ *
+ * The first command that mentions an entity carries its full JSON, which cardgame.js
+ * remembers. After that a unit is sent as just its id and current animation, a tile as
+ * just its coordinates and an effect as just an effectId, and cardgame.js fills in the
+ * rest from what it remembered. Since the commands of one game are delivered in order,
+ * the full version always arrives before any reference to it.
+ *
+ */
+public class EntityRegistry {
+
+	public static final String PROTOCOL = "refs";
+
+	private static final JsonNodeFactory nodes = JsonNodeFactory.instance;
+
+	private final Set<Integer> units = new HashSet<Integer>();
+	private final Set<Integer> tiles = new HashSet<Integer>();
+	private final Map<List<String>, Integer> effects = new HashMap<List<String>, Integer>();
+
+	/**
+	 * @return the full unit the first time it is seen, otherwise a reference to it
+	 */
+	public JsonNode unit(Unit unit) {
+		if (unit==null) return null;
+		if (units.add(unit.getId())) return CommandEncoder.unit(unit);
+
+		ObjectNode node = nodes.objectNode();
+		node.put("id", unit.getId());
+		if (unit.getAnimation()==null) node.putNull("animation");
+		else node.put("animation", unit.getAnimation().toString());
+		return node;
+	}
+
+	/**
+	 * Always returns the full unit (e.g. when it is being drawn) and remembers it as sent
+	 */
+	public JsonNode register(Unit unit) {
+		if (unit==null) return null;
+		units.add(unit.getId());
+		return CommandEncoder.unit(unit);
+	}
+
+	/**
+	 * Called when the unit is deleted in the browser, so it will be sent in full if it
+	 * is ever drawn again
+	 */
+	public void forget(Unit unit) {
+		if (unit!=null) units.remove(unit.getId());
+	}
+
+	/**
+	 * @return the full tile the first time it is seen, otherwise a reference to it
+	 */
+	public JsonNode tile(Tile tile) {
+		if (tile==null) return null;
+		if (tiles.add((tile.getTilex()<<16) | (tile.getTiley() & 0xffff))) return CommandEncoder.tile(tile);
+
+		ObjectNode node = nodes.objectNode();
+		node.put("tilex", tile.getTilex());
+		node.put("tiley", tile.getTiley());
+		return node;
+	}
+
+	/**
+	 * Adds the effect to message as an "effectId", plus the full "effect" if this is the
+	 * first time the effect has been used. The EffectRegistry hands out one shared
+	 * EffectAnimation per effect for the game's ContentSnapshot, so an effect is usually
+	 * the same object every time; they are still told apart by their animation frames,
+	 * so that an effect built some other way reuses the id of an identical one.
+	 */
+	public void effect(ObjectNode message, EffectAnimation effect) {
+		if (effect==null) {
+			message.putNull("effect");
+			return;
+		}
+		Integer id = effects.get(effect.getAnimationTextures());
+		if (id==null) {
+			id = effects.size();
+			effects.put(effect.getAnimationTextures(), id);
+			message.set("effect", CommandEncoder.effect(effect));
+		}
+		message.put("effectId", id);
+	}
+
+}
@@ -0,0 +1,202 @@
+package commands;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import play.libs.Json;
+
+/**
+ * Holds the messages waiting for one browser that is reading them more slowly than the
+ * game produces them. The GameScreenController puts one of these in every websocket
+ * flow, behind the ActorFlow buffer, with the stream's conflate stage: while the browser
+ * keeps up each message passes straight through, while it falls behind they gather here.
+ *
+ * Commands that are superseded before they are sent are merged into the earlier one
+ * instead of being queued again: the last drawTile for a tile wins, as does the last
+ * setUnitHealth/setUnitAttack for a unit. The earlier command keeps its place and its
+ * tile/unit payload (which, for the refs protocol, may be the full one the browser has
+ * not seen yet) and only takes the new mode/health/attack.
+ *
+ * Those merges are the only messages ever left out. Every other command may be the one
+ * that draws or deletes a unit, or the first to carry a unit/tile/effect in full, so
+ * dropping it would leave the browser with a board that no longer matches the game (and,
+ * for the refs protocol, with references it cannot resolve). So the queue holds at most
+ * bound messages, and a browser that falls further behind than that is disconnected.
+ *
+ * Counters and gauges for all connections are available from metrics().
+ *
+ */
+public class OutboundQueue {
+
+	private static final Set<OutboundQueue> open = Collections.newSetFromMap(new ConcurrentHashMap<OutboundQueue, Boolean>());
+	private static final AtomicLong offered = new AtomicLong();
+	private static final AtomicLong coalesced = new AtomicLong();
+	private static final AtomicLong dropped = new AtomicLong();
+	private static final AtomicLong failed = new AtomicLong();
+	private static final AtomicLong peakDepth = new AtomicLong();
+
+	private final int bound;
+	private final Deque<ObjectNode> messages = new ArrayDeque<ObjectNode>();
+	private final Map<String, ObjectNode> latest = new HashMap<String, ObjectNode>(); // waiting command for each key
+
+	/**
+	 * @param bound the most messages to hold, at least 1
+	 */
+	public OutboundQueue(int bound) {
+		if (bound<1) throw new IllegalArgumentException("bound must be at least 1");
+		this.bound = bound;
+		open.add(this);
+	}
+
+	/**
+	 * Queues a message (a single command or a batch), first merging any of its commands
+	 * that supersede ones still waiting.
+	 * @param message
+	 * @return this queue
+	 * @throws IllegalStateException if the queue is full, which closes the connection
+	 */
+	public synchronized OutboundQueue offer(JsonNode message) {
+		offered.incrementAndGet();
+		if (!(message instanceof ObjectNode)) return this;
+		ObjectNode frame = (ObjectNode) message;
+
+		if ("batch".equals(frame.path("messagetype").asText())) {
+			ArrayNode commands = (ArrayNode) frame.get("commands");
+			Iterator<JsonNode> it = commands.elements();
+			while (it.hasNext()) {
+				if (merge((ObjectNode) it.next())) it.remove();
+			}
+			if (commands.size()==0) return this;
+		} else if (merge(frame)) {
+			return this;
+		}
+
+		if (messages.size()>=bound) {
+			failed.incrementAndGet();
+			dropped.addAndGet(messages.size()+1);
+			close();
+			throw new IllegalStateException("Browser is more than "+bound+" messages behind, closing the connection");
+		}
+		messages.addLast(frame);
+		index(frame);
+		peakDepth.accumulateAndGet(messages.size(), Math::max);
+		return this;
+	}
+
+	/**
+	 * Removes and returns everything waiting, oldest first
+	 * @return
+	 */
+	public synchronized List<JsonNode> drain() {
+		List<JsonNode> drained = new ArrayList<JsonNode>(messages);
+		messages.clear();
+		latest.clear();
+		return drained;
+	}
+
+	public synchronized int size() {
+		return messages.size();
+	}
+
+	/**
+	 * Stops counting this queue in the gauges, called when its connection closes
+	 */
+	public void close() {
+		open.remove(this);
+	}
+
+	/**
+	 * Folds command into a waiting command that it supersedes
+	 * @return true if it was merged and should not be queued itself
+	 */
+	private boolean merge(ObjectNode command) {
+		String type = command.path("messagetype").asText();
+		if (type.equals("drawUnit") || type.equals("deleteUnit")) {
+			// a unit that is redrawn may be sent in full again, keep later updates apart
+			int id = command.path("unit").path("id").asInt();
+			latest.remove("setUnitHealth:"+id);
+			latest.remove("setUnitAttack:"+id);
+			return false;
+		}
+		String key = key(command);
+		if (key==null) return false;
+
+		ObjectNode earlier = latest.get(key);
+		if (earlier==null) return false;
+		String field = field(type);
+		earlier.set(field, command.get(field));
+		coalesced.incrementAndGet();
+		return true;
+	}
+
+	private void index(ObjectNode frame) {
+		if (frame.has("commands")) {
+			for (JsonNode command : frame.get("commands")) index((ObjectNode) command);
+		} else {
+			String key = key(frame);
+			if (key!=null) latest.put(key, frame);
+		}
+	}
+
+	/**
+	 * @return what a command updates, if later commands of the same kind replace it
+	 */
+	private static String key(ObjectNode command) {
+		String type = command.path("messagetype").asText();
+		switch (type) {
+		case "drawTile":
+			JsonNode tile = command.path("tile");
+			return type+":"+tile.path("tilex").asInt()+","+tile.path("tiley").asInt();
+		case "setUnitHealth":
+		case "setUnitAttack":
+			return type+":"+command.path("unit").path("id").asInt();
+		default:
+			return null;
+		}
+	}
+
+	private static String field(String type) {
+		switch (type) {
+		case "drawTile": return "mode";
+		case "setUnitHealth": return "health";
+		default: return "attack";
+		}
+	}
+
+	/**
+	 * @return counters since start up and current gauges across all connections
+	 */
+	public static ObjectNode metrics() {
+		int connections = 0, depth = 0, maxDepth = 0;
+		for (OutboundQueue queue : open) {
+			int size = queue.size();
+			connections++;
+			depth += size;
+			maxDepth = Math.max(maxDepth, size);
+		}
+		ObjectNode metrics = Json.newObject();
+		metrics.put("connections", connections);
+		metrics.put("queued", depth);
+		metrics.put("maxQueued", maxDepth);
+		metrics.put("peakQueued", peakDepth.get());
+		metrics.put("offered", offered.get());
+		metrics.put("coalesced", coalesced.get());
+		metrics.put("dropped", dropped.get());
+		metrics.put("failedConnections", failed.get());
+		return metrics;
+	}
+
+}
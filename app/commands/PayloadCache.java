@@ -0,0 +1,63 @@
+package commands;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Holds the encoded JSON for the parts of a command that (almost) never change, such as
+ * a unit's UnitAnimationSet, a card's MiniCard/BigCard, the tile texture list or an
+ * EffectAnimation. The encoded node is keyed by the identity of the object it was built
+ * from (these classes do not override equals/hashCode) plus a version number computed
+ * by the caller from the object's mutable fields. If the version no longer matches, the
+ * node is rebuilt.
+ *
+ * Entries are weakly keyed, so they disappear together with the config objects.
+ *
+ * The cached nodes are spliced into many outbound messages at once and so must never be
+ * modified after they have been returned.
+ *
+ * @param <K> the type of object being encoded
+ */
+public class PayloadCache<K> {
+
+	private static class Entry {
+		final int version;
+		final JsonNode node;
+
+		Entry(int version, JsonNode node) {
+			this.version = version;
+			this.node = node;
+		}
+	}
+
+	private final Map<K, Entry> entries = Collections.synchronizedMap(new WeakHashMap<K, Entry>());
+	private final Function<K, ? extends JsonNode> encoder;
+
+	public PayloadCache(Function<K, ? extends JsonNode> encoder) {
+		this.encoder = encoder;
+	}
+
+	/**
+	 * @param key the config object
+	 * @param version a value that changes whenever the encoded form of key would change
+	 * @return the encoded form of key, built at most once per version
+	 */
+	public JsonNode get(K key, int version) {
+		if (key==null) return null;
+		Entry entry = entries.get(key);
+		if (entry==null || entry.version!=version) {
+			entry = new Entry(version, encoder.apply(key));
+			entries.put(key, entry);
+		}
+		return entry.node;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+}
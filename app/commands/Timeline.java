@@ -0,0 +1,174 @@
+package commands;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import akka.actor.ActorRef;
+import structures.basic.BoardGeometry;
+
+/**
+ * Schedules the UI commands of one game. Game logic runs straight through without
+ * blocking; every BasicCommands call made while the timeline is bound to the thread is
+ * stamped with the time at which it should be shown, and BasicCommands.pause() moves
+ * that time forward instead of sleeping. The result is a queue of CommandBatches, each
+ * due at a point in time, which the owner passes to the game's CommandSink when they fall
+ * due: the GameActor uses the Akka scheduler, a HeadlessGame sends them at once.
+ *
+ * Commands from a later event are always queued after those still waiting from earlier
+ * events, so the browser sees the same order and pacing as before.
+ *
+ * Tile draws go through a BoardRenderModel of the game's board and are only queued, at
+ * the end of each batch, for tiles whose mode has changed.
+ *
+ * A Timeline is not thread safe, it belongs to one actor.
+ *
+ */
+public class Timeline {
+
+	private static final ThreadLocal<Timeline> current = new ThreadLocal<Timeline>();
+
+	private final ActorRef out;
+	private final CommandSink sink;
+	private final EntityRegistry registry; // null unless the browser asked for the refs protocol
+	private final BoardRenderModel board;
+	private final Deque<CommandBatch> pending = new ArrayDeque<CommandBatch>();
+	private CommandBatch open = null; // the batch being filled at the cursor
+	private long cursor = 0; // when the commands issued now will be shown
+
+	public Timeline(ActorRef out) {
+		this(out, false);
+	}
+
+	/**
+	 * @param out
+	 * @param refs whether later commands should refer to already sent entities by id (see EntityRegistry)
+	 */
+	public Timeline(ActorRef out, boolean refs) {
+		this(out, new ActorCommandSink(out), refs);
+	}
+
+	/**
+	 * @param out the ActorRef the game logic passes to BasicCommands, may be null for a headless game
+	 * @param sink where the commands go when they are due
+	 * @param refs whether later commands should refer to already sent entities by id (see EntityRegistry)
+	 */
+	public Timeline(ActorRef out, CommandSink sink, boolean refs) {
+		this(out, sink, refs, BoardGeometry.STANDARD);
+	}
+
+	/**
+	 * @param out the ActorRef the game logic passes to BasicCommands, may be null for a headless game
+	 * @param sink where the commands go when they are due
+	 * @param refs whether later commands should refer to already sent entities by id (see EntityRegistry)
+	 * @param geometry the board of the game (see GameState.geometry)
+	 */
+	public Timeline(ActorRef out, CommandSink sink, boolean refs, BoardGeometry geometry) {
+		this.out = out;
+		this.sink = sink;
+		this.registry = refs ? new EntityRegistry() : null;
+		this.board = new BoardRenderModel(geometry);
+	}
+
+	/**
+	 * @return the timeline bound to this thread, or null if commands should be sent directly
+	 */
+	public static Timeline current() {
+		return current.get();
+	}
+
+	/**
+	 * Binds this timeline to the current thread, so that BasicCommands calls for its
+	 * ActorRef are queued here.
+	 */
+	public void begin() {
+		current.set(this);
+		cursor = Math.max(cursor, System.currentTimeMillis());
+	}
+
+	/**
+	 * Unbinds the timeline from the current thread. Queued commands stay queued until
+	 * they are taken with takeDue().
+	 */
+	public void end() {
+		board.flush(this);
+		open = null;
+		if (current.get()==this) current.remove();
+	}
+
+	public boolean isFor(ActorRef out) {
+		return this.out==out;
+	}
+
+	public ActorRef getOut() {
+		return out;
+	}
+
+	public CommandSink getSink() {
+		return sink;
+	}
+
+	public BoardRenderModel getBoard() {
+		return board;
+	}
+
+	public EntityRegistry getRegistry() {
+		return registry;
+	}
+
+	void add(ObjectNode command) {
+		if (open==null) {
+			open = new CommandBatch(cursor);
+			pending.addLast(open);
+		}
+		open.add(command);
+	}
+
+	/**
+	 * Commands issued after this call are shown ms milliseconds after the ones before it
+	 * @param ms
+	 */
+	public void pause(int ms) {
+		if (ms<=0) return;
+		board.flush(this);
+		open = null;
+		cursor += ms;
+	}
+
+	/**
+	 * Removes and returns the batches that are due at the given time
+	 * @param now
+	 * @return
+	 */
+	public List<CommandBatch> takeDue(long now) {
+		List<CommandBatch> due = new ArrayList<CommandBatch>();
+		while (!pending.isEmpty() && pending.peekFirst().getDueAt()<=now) {
+			CommandBatch batch = pending.pollFirst();
+			if (batch==open) open = null;
+			due.add(batch);
+		}
+		return due;
+	}
+
+	/**
+	 * Passes the batches that are due at the given time to the sink
+	 * @param now
+	 */
+	public void deliverDue(long now) {
+		for (CommandBatch batch : takeDue(now)) {
+			sink.tell(batch.toMessage());
+		}
+	}
+
+	/**
+	 * @return the time the next batch is due, or -1 if nothing is waiting
+	 */
+	public long nextDue() {
+		if (pending.isEmpty()) return -1;
+		return pending.peekFirst().getDueAt();
+	}
+
+}
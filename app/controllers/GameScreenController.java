@@ -1,14 +1,26 @@
 package controllers;
 
+import java.util.concurrent.CompletionStage;
+
 import javax.inject.Inject;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+
 import actors.GameActor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
 import akka.stream.Materializer;
+import akka.stream.OverflowStrategy;
+import akka.stream.javadsl.Flow;
+import akka.util.ByteString;
+import commands.BinaryEncoding;
+import commands.OutboundQueue;
 import play.data.Form;
 import play.data.FormFactory;
+import play.http.websocket.Message;
+import play.libs.F;
 import play.libs.streams.ActorFlow;
 import play.mvc.Controller;
 import play.mvc.Http;
@@ -25,26 +37,63 @@ public class GameScreenController extends Controller {
 
 	private final ActorSystem actorSystem;
 	private final Materializer materializer;
+	private final int outboundBufferSize; // most messages waiting for one browser, see game.outbound in application.conf
+	private final String journalDirectory; // where each game's GameJournal goes, empty for none
+	private final int journalKeep; // how many games' journals to keep, 0 for all
 	Form<User> userForm = null;
 	
 	
 	@Inject
-	public GameScreenController(FormFactory formFactory, ActorSystem actorSystem, Materializer materializer) {
+	public GameScreenController(FormFactory formFactory, ActorSystem actorSystem, Materializer materializer, Config config) {
 		this.actorSystem = actorSystem;
 		this.materializer = materializer;
+		this.outboundBufferSize = config.getInt("game.outbound.buffer-size");
+		this.journalDirectory = config.getString("game.journal.directory");
+		this.journalKeep = config.getInt("game.journal.keep");
 		userForm = formFactory.form(User.class);
 	}
 
 	/**
-	 * This responds to the request for creation of the Websocket 
+	 * This responds to the request for creation of the Websocket. The browser can ask for
+	 * a different command protocol and wire encoding with query parameters, e.g.
+	 * /gamews?protocol=refs&encoding=cbor
 	 * @return
 	 */
 	public WebSocket socket() {
 
-		return WebSocket.Json.accept(
-				request -> ActorFlow.actorRef(this::createGameActor, actorSystem, materializer));
-	}
+		WebSocket json = WebSocket.Json.accept(this::createGameFlow);
+		WebSocket cbor = WebSocket.Binary.accept(request -> Flow.<ByteString>create()
+				.map(bytes -> BinaryEncoding.decode(bytes.toArray()))
+				.via(createGameFlow(request))
+				.map(message -> ByteString.fromArray(BinaryEncoding.encode(message))));
 
+		return new WebSocket() {
+			@Override
+			public CompletionStage<F.Either<Result, Flow<Message, Message, ?>>> apply(Http.RequestHeader request) {
+				String encoding = request.queryString("encoding").orElse(BinaryEncoding.JSON);
+				if (BinaryEncoding.CBOR.equals(encoding)) return cbor.apply(request);
+				return json.apply(request);
+			}
+		};
+	}
+	
+	/**
+	 * Messages from the GameActor pass through a bounded buffer and then an OutboundQueue,
+	 * where they wait (and superseded commands are merged) while the browser is behind.
+	 * Nothing else is ever dropped: a browser that falls too far behind is disconnected.
+	 */
+	private Flow<JsonNode, JsonNode, ?> createGameFlow(Http.RequestHeader request) {
+		String protocol = request.queryString("protocol").orElse(GameActor.DEFAULT_PROTOCOL);
+		OutboundQueue queue = new OutboundQueue(outboundBufferSize);
+		return ActorFlow.<JsonNode, JsonNode>actorRef(out -> createGameActor(out, protocol), outboundBufferSize, OverflowStrategy.fail(), actorSystem, materializer)
+				.conflateWithSeed(queue::offer, (waiting, message) -> waiting.offer(message))
+				.mapConcat(OutboundQueue::drain)
+				.watchTermination((mat, done) -> {
+					done.whenComplete((result, error) -> queue.close());
+					return mat;
+				});
+	}
+	
 	/**
 	 * This method responds to the original request for the /game screen
 	 * @param request
@@ -57,4 +106,8 @@ public class GameScreenController extends Controller {
 	public Props createGameActor(ActorRef out) {
 		return Props.create(GameActor.class, out); // calls the constructor for Game Actor
 	}
+	
+	public Props createGameActor(ActorRef out, String protocol) {
+		return Props.create(GameActor.class, out, protocol, journalDirectory, journalKeep);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package controllers;
+
+import commands.OutboundQueue;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+/**
+ * Reports server health counters as JSON, for monitoring
+ *
+ */
+public class MetricsController extends Controller {
+
+	/**
+	 * Responds to /metrics with the outbound websocket queue counters and gauges
+	 * @return
+	 */
+	public Result metrics() {
+		return ok(OutboundQueue.metrics());
+	}
+
+}
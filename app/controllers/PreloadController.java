@@ -0,0 +1,37 @@
+package controllers;
+
+import play.mvc.Controller;
+import play.mvc.Http;
+import play.mvc.Result;
+import utils.PreloadManifest;
+
+/**
+ * Serves the list of images the game screen pre-loads. Each version of the list has its
+ * own URL, so it can be cached by the browser (and anything in between) for good.
+ *
+ */
+public class PreloadController extends Controller {
+
+	private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+	/**
+	 * Responds to /preload/:version with the manifest as a JSON array of image paths. An
+	 * old version is redirected to the current one.
+	 * @param version
+	 * @param request
+	 * @return
+	 */
+	public Result manifest(String version, Http.Request request) {
+		PreloadManifest manifest = PreloadManifest.get();
+		if (!manifest.getVersion().equals(version)) {
+			return redirect(manifest.getPath());
+		}
+
+		String etag = "\""+manifest.getVersion()+"\"";
+		if (request.header(IF_NONE_MATCH).map(etag::equals).orElse(false)) {
+			return status(NOT_MODIFIED).withHeader(ETAG, etag).withHeader(CACHE_CONTROL, IMMUTABLE);
+		}
+		return ok(manifest.getJson()).as("application/json").withHeader(ETAG, etag).withHeader(CACHE_CONTROL, IMMUTABLE);
+	}
+
+}
@@ -6,15 +6,12 @@ import commands.BasicCommands;
 import structures.GameState;
 import structures.basic.Card;
 import structures.basic.Tile;
-import structures.basic.Unit;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * CardClicked: Handles player card selection.
  * - Highlights summonable tiles based on the player's active units.
  * - Ensures valid summon positions include both adjacent and diagonal tiles.
+ * - The tiles come from the board's Bitboard (see Bitboard.summonableTiles()).
  */
 public class CardClicked implements EventProcessor {
 
@@ -36,45 +33,11 @@ public class CardClicked implements EventProcessor {
 			// 3️ Clear previously highlighted summonable tiles
 			gameState.summonableTiles.clear();
 
-			// 4️ Define summonable directions (adjacent & diagonal)
-			int[][] directions = new int[][] {
-					{ 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, // Adjacent tiles (right, left, down, up)
-					{ 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } // Diagonal tiles (top-right, bottom-right, top-left,
-																// bottom-left)
-			};
-
-			// 5️ Get all active units, including the player's Avatar
-			List<Unit> activeUnits = new ArrayList<>();
-			for (Unit unit : gameState.playerUnits) {
-				if (unit.getOwner() != gameState.currentPlayer) {
-					continue;
-				}
-				activeUnits.add(unit);
-			}
-			if (!activeUnits.contains(gameState.player1Avatar)) {
-				activeUnits.add(gameState.player1Avatar);
-			}
-
-			// 6️ Loop through active units to find valid summonable tiles
-			for (Unit unit : activeUnits) {
-				if (unit == null || unit.getPosition() == null)
-					continue; // Skip invalid units
-				int cx = unit.getPosition().getTilex();
-				int cy = unit.getPosition().getTiley();
-
-				// 7 Check all adjacent and diagonal tiles
-				for (int[] dir : directions) {
-					int nx = cx + dir[0];
-					int ny = cy + dir[1];
-
-					if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) { // Ensure within board limits
-						Tile t = gameState.board[nx][ny];
-						if (t.getUnit() == null) { // Only allow empty tiles
-							gameState.summonableTiles.add(t);
-							t.setHighlightStatus(out, 1); // Highlight tile in UI
-						}
-					}
-				}
+			// 4️ Highlight the summonable tiles: the empty tiles next to (or diagonal to)
+			// any of the player's units, the Avatar included
+			for (Tile t : gameState.bitboard.summonableTiles(gameState.currentPlayer)) {
+				gameState.summonableTiles.add(t);
+				t.setHighlightStatus(out, 1); // Highlight tile in UI
 			}
 		}
 	}
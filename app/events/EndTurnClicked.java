@@ -22,23 +22,23 @@ public class EndTurnClicked implements EventProcessor {
 		gameState.selectedHandPosition = -1;
 
 		BasicCommands.addPlayer1Notification(out, "End Turn", 2);
-		doSleep(50);
+		BasicCommands.pause(out, 50);
 
 		// 2️ Switch turns using TurnManager
 		TurnManager.switchTurn(out, gameState);
-		doSleep(50);
+		BasicCommands.pause(out, 50);
 
 		// 3️ Increase mana and draw a new card for the next player
 		if (gameState.currentPlayer == 1) {
 			gameState.player1.setMana(gameState.currentTurn + 1);
 			BasicCommands.setPlayer1Mana(out, gameState.player1);
-			doSleep(50);
+			BasicCommands.pause(out, 50);
 
 			HandManager.drawCard(out, gameState, 1);
 		} else {
 			gameState.player2.setMana(gameState.currentTurn + 1);
 			BasicCommands.setPlayer2Mana(out, gameState.player2);
-			doSleep(50);
+			BasicCommands.pause(out, 50);
 
 			HandManager.drawCard(out, gameState, 2);
 		}
@@ -47,8 +47,4 @@ public class EndTurnClicked implements EventProcessor {
 		StartTurn startTurnHandler = new StartTurn();
 		startTurnHandler.processEvent(out, gameState, null);
 	}
-
-	private void doSleep(int ms) {
-		try { Thread.sleep(ms); } catch (InterruptedException ignored) {}
-	}
 }
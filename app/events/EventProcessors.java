@@ -0,0 +1,30 @@
+package events;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates the event processors for a game, used by both the GameActor and HeadlessGame
+ *
+ */
+public class EventProcessors {
+
+	/**
+	 * @return a fresh set of event processors for one game, keyed by event type
+	 */
+	public static Map<String, EventProcessor> create() {
+		Map<String, EventProcessor> eventProcessors = new HashMap<String, EventProcessor>();
+		eventProcessors.put("initalize", new Initialize());
+		eventProcessors.put("heartbeat", new Heartbeat());
+		eventProcessors.put("unitMoving", new UnitMoving());
+		eventProcessors.put("unitstopped", new UnitStopped());
+		eventProcessors.put("unitAttacking", new UnitAttacking());
+		eventProcessors.put("tileclicked", new TileClicked());
+		eventProcessors.put("cardclicked", new CardClicked());
+		eventProcessors.put("endturnclicked", new EndTurnClicked());
+		eventProcessors.put("otherclicked", new OtherClicked());
+		eventProcessors.put("StartTurn", new StartTurn());
+		return eventProcessors;
+	}
+
+}
@@ -15,7 +15,7 @@ import utils.StaticConfFiles;
 
 /**
  * Handles the initialization of the game:
- * 1. Draws the game board (9×5 grid)
+ * 1. Draws the game board (9×5 grid, see GameState.geometry)
  * 2. Loads player avatars and sets their attack/health attributes
  * 3. Loads the card decks for both players
  * 4. Initializes player states (health, mana, starting cards)
@@ -50,8 +50,10 @@ public class Initialize implements EventProcessor {
 
 		// 5️ Place player avatars (Hero Units) onto the board
 		// Player 1's avatar is positioned at (1,2), Player 2's avatar at (7,2)
-		Tile p1Tile = gameState.board[1][2];
-		Tile p2Tile = gameState.board[7][2];
+		// (second column from each side, middle row)
+		int middleRow = gameState.geometry.getHeight() / 2;
+		Tile p1Tile = gameState.board[1][middleRow];
+		Tile p2Tile = gameState.board[gameState.geometry.getWidth() - 2][middleRow];
 		UnitManager.loadAndPlaceAvatars(out, gameState, p1Tile, p2Tile);
 
 		// 6️ Draw the first 3 cards for Player1
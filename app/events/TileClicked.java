@@ -143,7 +143,7 @@ public class TileClicked implements EventProcessor {
 		int tiley = message.get("tiley").asInt();
 
 		// 1. Check if the clicked tile is within bounds
-		if (tilex < 0 || tilex >= 9 || tiley < 0 || tiley >= 5) {
+		if (!gameState.geometry.contains(tilex, tiley)) {
 			return;
 		}
 
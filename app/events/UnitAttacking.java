@@ -21,6 +21,9 @@ public class UnitAttacking implements EventProcessor {
 
         int targetX = message.get("tilex").asInt();
         int targetY = message.get("tiley").asInt();
+        if (!gameState.geometry.contains(targetX, targetY)) {
+            return;
+        }
 
         Tile targetTile = gameState.board[targetX][targetY];
 
@@ -7,23 +7,24 @@ import structures.basic.Tile;
 import utils.BasicObjectBuilders;
 
 /**
- * BoardManager: Responsible for drawing the 9×5 game board
- * and storing it in `GameState.board`.
+ * BoardManager: Responsible for drawing the game board (9×5 unless the
+ * GameState has another BoardGeometry) and storing it in `GameState.board`.
  */
 public class BoardManager {
 
     /**
-     * Draws the 9×5 board tiles and stores them in `gameState.board`.
+     * Draws the board tiles and stores them in `gameState.board`.
      * Each tile is loaded and rendered on the UI.
      *
      * @param out       The front-end communication channel
      * @param gameState The current game state storing all board data
      */
     public static void drawBoard(ActorRef out, GameState gameState) {
-        for (int x = 0; x < 9; x++) { // Iterate through the 9 columns
-            for (int y = 0; y < 5; y++) { // Iterate through the 5 rows
+        for (int x = 0; x < gameState.geometry.getWidth(); x++) { // Iterate through the columns
+            for (int y = 0; y < gameState.geometry.getHeight(); y++) { // Iterate through the rows
                 Tile tile = BasicObjectBuilders.loadTile(x, y); // Load the tile
                 gameState.board[x][y] = tile; // Store the tile in the game state
+                gameState.bitboard.attach(tile); // Track the tile's unit in the bitboard
                 tile.setHighlightStatus(out, 0); // Render the tile in UI
             }
         }
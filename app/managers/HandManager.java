@@ -4,6 +4,7 @@ import akka.actor.ActorRef;
 import commands.BasicCommands;
 import structures.GameState;
 import structures.basic.Card;
+import utils.CardPresentations;
 
 public class HandManager {
 
@@ -23,14 +24,14 @@ public class HandManager {
         // Check if hand is full (limit: 6 cards)
         if (hand.size() >= 6) {
             BasicCommands.addPlayer1Notification(out, "Hand is full (6 cards)", 2);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
             return;
         }
 
         // Check if deck is empty
         if (deck.isEmpty()) {
             BasicCommands.addPlayer1Notification(out, "Deck is empty, cannot draw more cards!", 2);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
             return;
         }
 
@@ -39,9 +40,12 @@ public class HandManager {
         int oldSize = hand.size();
         hand.add(newCard);
 
+        // Cards in the deck only carry their rules, give this one its pictures and text
+        CardPresentations.hydrate(newCard);
+
         // Draw the new card in the UI (in the next available slot)
         BasicCommands.drawCard(out, newCard, oldSize + 1, 0);
-        doSleep(100);
+        BasicCommands.pause(out, 100);
     }
 
     /**
@@ -64,36 +68,36 @@ public class HandManager {
         if (gameState.currentPlayer == 1) {
             if (gameState.player1.getMana() < card.getManacost()) {
                 BasicCommands.addPlayer1Notification(out, "Not enough mana!", 2);
-                doSleep(40);
+                BasicCommands.pause(out, 40);
                 return false;
             }
             gameState.player1.setMana(gameState.player1.getMana() - card.getManacost());
             BasicCommands.setPlayer1Mana(out, gameState.player1);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
 
             if (index < gameState.player1Hand.size()) {
                 gameState.player1Hand.remove(index);
             }
             BasicCommands.deleteCard(out, handPos);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
 
             shiftCardsUI(out, gameState.player1Hand, index, 1);
 
         } else { // Handle Player 2
             if (gameState.player2.getMana() < card.getManacost()) {
                 BasicCommands.addPlayer1Notification(out, "Opponent does not have enough mana!", 2);
-                doSleep(40);
+                BasicCommands.pause(out, 40);
                 return false;
             }
             gameState.player2.setMana(gameState.player2.getMana() - card.getManacost());
             BasicCommands.setPlayer2Mana(out, gameState.player2);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
 
             if (index < gameState.player2Hand.size()) {
                 gameState.player2Hand.remove(index);
             }
             BasicCommands.deleteCard(out, handPos);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
 
             shiftCardsUI(out, gameState.player2Hand, index, 2);
         }
@@ -114,23 +118,13 @@ public class HandManager {
     private static void shiftCardsUI(ActorRef out, java.util.List<Card> hand, int removedIndex, int player){
         for (int i = removedIndex; i < 6; i++) {
             BasicCommands.deleteCard(out, i + 1);
-            doSleep(40);
+            BasicCommands.pause(out, 40);
 
             if (i < hand.size()) {
                 Card c = hand.get(i);
                 BasicCommands.drawCard(out, c, i + 1, 0);
-                doSleep(40);
+                BasicCommands.pause(out, 40);
             }
         }
     }
-
-    /**
-     * Introduces a delay to allow UI commands to execute in the correct order.
-     * Prevents UI desynchronization.
-     *
-     * @param ms The sleep duration in milliseconds
-     */
-    private static void doSleep(int ms){
-        try { Thread.sleep(ms); } catch (InterruptedException e) {}
-    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package managers;
 import akka.actor.ActorRef;
 import commands.BasicCommands;
 import structures.GameState;
+import structures.basic.BoardGeometry;
 import structures.basic.Card;
 import structures.basic.EffectAnimation;
 import structures.basic.Tile;
@@ -35,8 +36,8 @@ public class UnitManager {
     public static void loadAndPlaceAvatars(ActorRef out, GameState gameState, Tile p1Tile, Tile p2Tile)
             throws InterruptedException {
         // 加载玩家1和玩家2的化身
-        Unit p1Avatar = BasicObjectBuilders.loadUnit(StaticConfFiles.humanAvatar, 100, Unit.class);
-        Unit p2Avatar = BasicObjectBuilders.loadUnit(StaticConfFiles.aiAvatar, 101, Unit.class);
+        Unit p1Avatar = BasicObjectBuilders.loadUnit(StaticConfFiles.humanAvatar, GameState.PLAYER1_AVATAR_ID, Unit.class);
+        Unit p2Avatar = BasicObjectBuilders.loadUnit(StaticConfFiles.aiAvatar, GameState.PLAYER2_AVATAR_ID, Unit.class);
 
         // 设置化身标记
         p1Avatar.setIsAvartar(1);
@@ -60,9 +61,9 @@ public class UnitManager {
 
         // 在棋盘上渲染化身
         BasicCommands.drawUnit(out, p1Avatar, p1Tile);
-        Thread.sleep(50);
+        BasicCommands.pause(out, 50);
         BasicCommands.drawUnit(out, p2Avatar, p2Tile);
-        Thread.sleep(50);
+        BasicCommands.pause(out, 50);
 
         // 更新UI以显示单位属性
         BasicCommands.setUnitAttack(out, p1Avatar, 2);
@@ -106,21 +107,13 @@ public class UnitManager {
         clickedTile.setUnit(newUnit);
 
         // 播放召唤特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_summon), clickedTile);
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_summon), clickedTile);
+        BasicCommands.pause(out, 100);
 
         // 在UI上渲染单位
         BasicCommands.drawUnit(out, newUnit, clickedTile);
         
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.pause(out, 100);
 
         // 更新UI显示正确的攻击力和生命值
         BasicCommands.setUnitAttack(out, newUnit, attackValue);
@@ -162,28 +155,12 @@ public class UnitManager {
             return;
         }
         
-        // 普通单位移动范围（相邻、对角线和距离2的格子）
-        int[][] directions = new int[][] {
-                { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, // 相邻格子（右、左、下、上）
-                { 2, 0 }, { -2, 0 }, { 0, 2 }, { 0, -2 }, // 距离2的格子
-                { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } // 对角线格子
-        };
-
+        // 普通单位移动范围（相邻、对角线和距离2的格子），只允许空格子
         int cx = unit.getPosition().getTilex();
         int cy = unit.getPosition().getTiley();
-
-        // 检查所有可能的移动目标
-        for (int[] dir : directions) {
-            int nx = cx + dir[0];
-            int ny = cy + dir[1];
-
-            if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) { // 确保在棋盘范围内
-                Tile tile = gameState.board[nx][ny];
-                if (tile.getUnit() == null) { // 只允许空格子
-                    gameState.movableTiles.add(tile);
-                    tile.setHighlightStatus(out, 1); // 在UI中高亮格子
-                }
-            }
+        for (Tile tile : gameState.bitboard.movableTiles(cx, cy)) {
+            gameState.movableTiles.add(tile);
+            tile.setHighlightStatus(out, 1); // 在UI中高亮格子
         }
     }
 
@@ -204,10 +181,8 @@ public class UnitManager {
         }
         
         // 检查周围是否有嘲讽单位，如果有，则只能攻击嘲讽单位
-        List<Unit> provokeUnits = getAdjacentProvokeUnits(unit, gameState);
-        if (!provokeUnits.isEmpty()) {
-            for (Unit provokeUnit : provokeUnits) {
-                Tile provokeUnitTile = provokeUnit.getTile();
+        if (gameState.isProvoked(unit)) {
+            for (Tile provokeUnitTile : getAdjacentProvokeTiles(unit, gameState)) {
                 gameState.attackableTiles.add(provokeUnitTile);
                 provokeUnitTile.setHighlightStatus(out, 2); // 在UI中高亮格子
             }
@@ -220,65 +195,36 @@ public class UnitManager {
             return;
         }
         
-        // 普通单位攻击范围（相邻和对角线格子）
-        int[][] directions = new int[][] {
-                { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, // 相邻格子
-                { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } // 对角线格子
-        };
-
+        // 普通单位攻击范围（相邻和对角线格子），只允许攻击敌方单位
         int cx = unit.getPosition().getTilex();
         int cy = unit.getPosition().getTiley();
-
-        // 检查所有可能的攻击目标
-        for (int[] dir : directions) {
-            int nx = cx + dir[0];
-            int ny = cy + dir[1];
-
-            if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) { // 确保在棋盘范围内
-                Tile tile = gameState.board[nx][ny];
-
-                // 如果格子是空的，跳过
-                if (tile.getUnit() == null) {
-                    continue;
-                }
-
-                // 只允许攻击敌方单位
-                if (tile.getUnit().getOwner() != gameState.currentPlayer) {
-                    gameState.attackableTiles.add(tile);
-                    tile.setHighlightStatus(out, 2); // 在UI中高亮格子
-                }
-            }
+        for (Tile tile : gameState.bitboard.attackableTiles(cx, cy, gameState.currentPlayer)) {
+            gameState.attackableTiles.add(tile);
+            tile.setHighlightStatus(out, 2); // 在UI中高亮格子
         }
     }
 
     /**
-     * 获取单位周围的嘲讽单位
+     * 获取单位周围的嘲讽单位所在的格子
      * @param unit 要检查的单位
      * @param gameState 当前游戏状态
-     * @return 相邻的敌方嘲讽单位列表
+     * @return 相邻的敌方嘲讽单位所在的格子
      */
-    private static List<Unit> getAdjacentProvokeUnits(Unit unit, GameState gameState) {
-        List<Unit> result = new ArrayList<>();
-        List<Unit> provokeUnits = gameState.getProvokeUnits();
-        
-        if (provokeUnits.isEmpty()) return result;
-        
-        int x = unit.getPosition().getTilex();
-        int y = unit.getPosition().getTiley();
-        
-        for (Unit provokeUnit : provokeUnits) {
-            if (provokeUnit.getOwner() == unit.getOwner()) continue; // 忽略同队的嘲讽单位
-            
-            int px = provokeUnit.getPosition().getTilex();
-            int py = provokeUnit.getPosition().getTiley();
-            
-            // 如果嘲讽单位在相邻格子（包括对角线）
-            if (Math.abs(x - px) <= 1 && Math.abs(y - py) <= 1) {
-                result.add(provokeUnit);
-            }
-        }
-        
-        return result;
+    private static List<Tile> getAdjacentProvokeTiles(Unit unit, GameState gameState) {
+        return gameState.bitboard.provokerTiles(unit.getPosition().getTilex(), unit.getPosition().getTiley(), unit.getOwner());
+    }
+
+    /**
+     * 检查目标是否是攻击者周围的敌方嘲讽单位
+     * @param gameState 当前游戏状态
+     * @param attacker 攻击者
+     * @param target 目标
+     * @return 如果目标是相邻的敌方嘲讽单位则返回true
+     */
+    private static boolean isAdjacentProvoker(GameState gameState, Unit attacker, Unit target) {
+        int tx = target.getPosition().getTilex();
+        int ty = target.getPosition().getTiley();
+        return gameState.bitboard.isEnemyProvoker(tx, ty, attacker.getOwner()) && isUnitInAttackRange(gameState, attacker, target);
     }
 
     /**
@@ -305,11 +251,7 @@ public class UnitManager {
         BasicCommands.moveUnitToTile(out, unit, clickedTile);
         unit.addMoves();
         
-        try {
-            Thread.sleep(1000); // 等待移动动画完成
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.pause(out, 1000); // 等待移动动画完成
     }
 
     /**
@@ -325,8 +267,7 @@ public class UnitManager {
         }
 
         // 如果有嘲讽单位但目标不是嘲讽单位，不能攻击
-        List<Unit> provokeUnits = getAdjacentProvokeUnits(attacker, gameState);
-        if (!provokeUnits.isEmpty() && !provokeUnits.contains(target)) {
+        if (gameState.isProvoked(attacker) && !isAdjacentProvoker(gameState, attacker, target)) {
             return;
         }
 
@@ -385,7 +326,7 @@ public class UnitManager {
             removeUnit(out, gameState, target);
         } else if (target.getAttack() > 0) {
             // 目标存活，进行反击（如果攻击者在目标的攻击范围内）
-            boolean canCounter = isUnitInAttackRange(target, attacker);
+            boolean canCounter = isUnitInAttackRange(gameState, target, attacker);
             if (canCounter) {
                 // 反击逻辑
                 int counterDamage = target.getAttack();
@@ -423,18 +364,18 @@ public class UnitManager {
 
     /**
      * 检查目标单位是否在攻击者的攻击范围内（用于判断是否可以反击）
+     * @param gameState 当前游戏状态
      * @param attacker 攻击者
      * @param target 目标
      * @return 如果目标在攻击范围内则返回true
      */
-    private static boolean isUnitInAttackRange(Unit attacker, Unit target) {
-        int ax = attacker.getPosition().getTilex();
-        int ay = attacker.getPosition().getTiley();
-        int tx = target.getPosition().getTilex();
-        int ty = target.getPosition().getTiley();
+    private static boolean isUnitInAttackRange(GameState gameState, Unit attacker, Unit target) {
+        BoardGeometry geometry = gameState.geometry;
+        int ac = geometry.cell(attacker.getPosition().getTilex(), attacker.getPosition().getTiley());
+        int tc = geometry.cell(target.getPosition().getTilex(), target.getPosition().getTiley());
         
         // 检查目标是否在相邻格子（包括对角线）
-        return Math.abs(ax - tx) <= 1 && Math.abs(ay - ty) <= 1;
+        return geometry.isAdjacent(ac, tc);
     }
 
     /**
@@ -460,12 +401,8 @@ public class UnitManager {
                     BasicCommands.setUnitAttack(out, unit, newAttack);
                     
                     // 播放增益特效
-                    try {
-                        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
-                        Thread.sleep(500);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
+                    BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
+                    BasicCommands.pause(out, 500);
                 }
             }
         }
@@ -528,11 +465,7 @@ public class UnitManager {
      */
     public static void playAnimation(ActorRef out, Unit unit, UnitAnimationType type, int time) {
         BasicCommands.playUnitAnimation(out, unit, type);
-        try {
-            Thread.sleep(time);
-        } catch (InterruptedException e) {
-            System.out.println("Thread interrupted.");
-        }
+        BasicCommands.pause(out, time);
     }
     
     /**
@@ -559,21 +492,13 @@ public class UnitManager {
         tile.setUnit(wraithling);
         
         // 播放召唤特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_wraithsummon), tile);
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_wraithsummon), tile);
+        BasicCommands.pause(out, 500);
         
         // 渲染单位
         BasicCommands.drawUnit(out, wraithling, tile);
         
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.pause(out, 100);
         
         // 更新UI显示
         BasicCommands.setUnitAttack(out, wraithling, 1);
@@ -600,25 +525,17 @@ public class UnitManager {
         }
         
         List<Tile> emptyTiles = new ArrayList<>();
-        int x = unit.getPosition().getTilex();
-        int y = unit.getPosition().getTiley();
+        int cell = gameState.geometry.cell(unit.getPosition().getTilex(), unit.getPosition().getTiley());
+        if (cell < 0) {
+            return null;
+        }
         
         // 检查所有相邻和对角线格子
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                if (i == 0 && j == 0) continue; // 跳过单位自身位置
-                
-                int nx = x + i;
-                int ny = y + j;
-                
-                // 检查坐标是否合法
-                if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) {
-                    Tile tile = gameState.board[nx][ny];
-                    // 如果格子为空，添加到候选列表
-                    if (tile.getUnit() == null) {
-                        emptyTiles.add(tile);
-                    }
-                }
+        for (int neighbour : gameState.geometry.adjacent(cell)) {
+            Tile tile = gameState.bitboard.tile(neighbour);
+            // 如果格子为空，添加到候选列表
+            if (tile != null && tile.getUnit() == null) {
+                emptyTiles.add(tile);
             }
         }
         
@@ -0,0 +1,18 @@
+package modules;
+
+import com.google.inject.AbstractModule;
+
+/**
+ * Loads the game content once when the application starts, rather than when the first
+ * controller is made (see GameContentStartup). Enabled in application.conf with
+ * play.modules.enabled
+ *
+ */
+public class GameContentModule extends AbstractModule {
+
+	@Override
+	protected void configure() {
+		bind(GameContentStartup.class).asEagerSingleton();
+	}
+
+}
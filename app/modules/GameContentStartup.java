@@ -0,0 +1,41 @@
+package modules;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.typesafe.config.Config;
+
+import play.inject.ApplicationLifecycle;
+import utils.ContentBundle;
+import utils.ContentWatcher;
+import utils.GameContent;
+
+/**
+ * Publishes the game content from game.content.bundle and, if game.content.watch is on,
+ * watches conf/gameconfs for changes until the application stops (see GameContent).
+ *
+ */
+@Singleton
+public class GameContentStartup {
+
+	@Inject
+	public GameContentStartup(Config config, ApplicationLifecycle lifecycle) {
+		GameContent.open(config.getString("game.content.bundle"));
+		if (config.getBoolean("game.content.watch")) {
+			try {
+				ContentWatcher watcher = GameContent.watch(Paths.get(ContentBundle.CONTENT_DIR));
+				lifecycle.addStopHook(() -> {
+					watcher.close();
+					return CompletableFuture.completedFuture(null);
+				});
+			} catch (IOException e) {
+				e.printStackTrace(); // no hot reload
+			}
+		}
+	}
+
+}
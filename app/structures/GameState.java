@@ -1,4 +1,6 @@
 package structures;
+import structures.basic.Bitboard;
+import structures.basic.BoardGeometry;
 import structures.basic.Card;
 import structures.basic.Player;
 import structures.basic.Tile;
@@ -6,6 +8,7 @@ import structures.basic.Unit;
 import utils.OrderedCardLoader;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,8 +23,16 @@ public class GameState {
 
     public boolean gameInitalised = false; // Indicates if the game has been initialized
 
-    // The game board (9x5 tiles)
-    public Tile[][] board = new Tile[9][5];
+    // Unit ids of the avatars, never handed out by getCurrentUnitId()
+    public static final int PLAYER1_AVATAR_ID = 100;
+    public static final int PLAYER2_AVATAR_ID = 101;
+
+    // The shape of the board (9x5 tiles unless given), with the neighbours of every tile
+    public BoardGeometry geometry;
+    // The game board, board[x][y]
+    public Tile[][] board;
+    // Who is on which tile of the board, as bitmasks (kept in step by the tiles)
+    public Bitboard bitboard;
 
     // Card decks and hands for both players (stored as Lists)
     public List<Card> player1Deck = new ArrayList<>();
@@ -39,8 +50,8 @@ public class GameState {
     public Unit player1Avatar;
     public Unit player2Avatar;
 
-    // List of active units for each player
-    public List<Unit> playerUnits;
+    // Active units of both players, in the order they were added, indexed by id
+    public UnitRegistry playerUnits;
 
     // Tiles and cards related to user interactions (highlighted/movable/selected)
     public List<Tile> movableTiles;
@@ -59,13 +70,26 @@ public class GameState {
     private Map<Unit, Integer> artifactDurability = new HashMap<>();
 
     /**
-     * Initializes the game state, including player objects and empty lists for cards and units.
+     * Initializes the game state on the usual 9x5 board.
      */
     public GameState() {
+        this(BoardGeometry.STANDARD);
+    }
+
+    /**
+     * Initializes the game state, including player objects and empty lists for cards and units.
+     * @param geometry the size of the board; the browser only shows the 9x5 one, larger
+     * boards are for simulations and benchmarks
+     */
+    public GameState(BoardGeometry geometry) {
+        this.geometry = geometry;
+        board = new Tile[geometry.getWidth()][geometry.getHeight()];
+        bitboard = new Bitboard(geometry);
+
         player1 = new Player(20, 0);
         player2 = new Player(20, 0);
 
-        playerUnits = new ArrayList<>();
+        playerUnits = new UnitRegistry();
 
         movableTiles = new ArrayList<>();
         attackableTiles = new ArrayList<>();
@@ -100,16 +124,19 @@ public class GameState {
      * @return The unit with the given ID, or `null` if not found
      */
     public Unit getUnitById(int id) {
-        for (Unit u : playerUnits) {
-            if (u.getId() == id)
-                return u;
-        }
-        return null;
+        return playerUnits.get(id);
     }
     
+    /**
+     * Hands out the next unit ID, skipping the avatars' IDs
+     * @return an ID no other unit of this game has
+     */
     public int getCurrentUnitId() {
         int id = this.currentUnitId;
-        ++this.currentUnitId;
+        if (id == PLAYER1_AVATAR_ID || id == PLAYER2_AVATAR_ID) {
+            id = PLAYER2_AVATAR_ID + 1;
+        }
+        this.currentUnitId = id + 1;
         return id;
     }
     
@@ -160,6 +187,7 @@ public class GameState {
     public void registerProvokeUnit(Unit unit) {
         if (!provokeUnits.contains(unit)) {
             provokeUnits.add(unit);
+            bitboard.addProvoker(unit); // 更新嘲讽范围
         }
     }
     
@@ -168,15 +196,17 @@ public class GameState {
      * @param unit 要取消注册的单位
      */
     public void unregisterProvokeUnit(Unit unit) {
-        provokeUnits.remove(unit);
+        if (provokeUnits.remove(unit)) {
+            bitboard.removeProvoker(unit);
+        }
     }
     
     /**
      * 获取所有具有嘲讽能力的单位
-     * @return 嘲讽单位列表
+     * @return 嘲讽单位列表（只读）
      */
     public List<Unit> getProvokeUnits() {
-        return new ArrayList<>(provokeUnits);
+        return Collections.unmodifiableList(provokeUnits);
     }
     
     /**
@@ -185,25 +215,8 @@ public class GameState {
      * @return 如果单位被嘲讽则返回true
      */
     public boolean isProvoked(Unit unit) {
-        if (provokeUnits.isEmpty()) return false;
-        
-        int x = unit.getPosition().getTilex();
-        int y = unit.getPosition().getTiley();
-        
-        // 检查单位周围是否有敌方嘲讽单位
-        for (Unit provokeUnit : provokeUnits) {
-            if (provokeUnit.getOwner() == unit.getOwner()) continue; // 忽略同队的嘲讽单位
-            
-            int px = provokeUnit.getPosition().getTilex();
-            int py = provokeUnit.getPosition().getTiley();
-            
-            // 如果嘲讽单位在相邻格子（包括对角线）
-            if (Math.abs(x - px) <= 1 && Math.abs(y - py) <= 1) {
-                return true;
-            }
-        }
-        
-        return false;
+        // 单位所在格子是否在敌方嘲讽单位的范围内（相邻格子，包括对角线）
+        return bitboard.isProvoked(unit.getPosition().getTilex(), unit.getPosition().getTiley(), unit.getOwner());
     }
     
     // 神器相关方法
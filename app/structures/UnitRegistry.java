@@ -0,0 +1,154 @@
+package structures;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import structures.basic.Unit;
+
+/**
+ * The units on the board (GameState.playerUnits), in the order they were added, indexed
+ * by unit id. Unit ids are small and dense (see GameState.getCurrentUnitId, plus 100 and
+ * 101 for the avatars), so the index is an array: add, remove, contains and get(id) take
+ * constant time.
+ *
+ * A removed unit leaves a gap in the order, which iteration skips; the gaps are closed
+ * once they make up half of it. As with an ArrayList, the units must not be added or
+ * removed while iterating, other than through the iterator.
+ *
+ * Each id can only be used by one unit at a time, and a unit's id must not change while
+ * it is in the registry.
+ *
+ */
+public class UnitRegistry extends AbstractCollection<Unit> {
+
+	private Unit[] byId = new Unit[128];
+	private int[] slotById = new int[128];
+
+	private Unit[] order = new Unit[16]; // null where a unit has been removed
+	private int end = 0; // order[end] onwards is unused
+	private int size = 0;
+	private int modCount = 0;
+
+	/**
+	 * @param id
+	 * @return the unit with the given id, or null
+	 */
+	public Unit get(int id) {
+		return id >= 0 && id < byId.length ? byId[id] : null;
+	}
+
+	@Override
+	public boolean add(Unit unit) {
+		int id = unit.getId();
+		if (id < 0) throw new IllegalArgumentException("Unit id "+id+" is negative");
+		if (get(id) == unit) return false;
+		if (get(id) != null) throw new IllegalArgumentException("Unit id "+id+" is already used by another unit");
+		if (id >= byId.length) {
+			int length = Math.max(byId.length*2, id+1);
+			byId = Arrays.copyOf(byId, length);
+			slotById = Arrays.copyOf(slotById, length);
+		}
+		if (end == order.length) order = Arrays.copyOf(order, order.length*2);
+		order[end] = unit;
+		byId[id] = unit;
+		slotById[id] = end;
+		end++;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		if (!(o instanceof Unit)) return false;
+		Unit unit = (Unit) o;
+		int id = unit.getId();
+		if (get(id) != unit) return false;
+		order[slotById[id]] = null;
+		byId[id] = null;
+		size--;
+		modCount++;
+		if (end-size > end/2) compact();
+		return true;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof Unit && get(((Unit) o).getId()) == o;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(byId, null);
+		Arrays.fill(order, 0, end, null);
+		end = 0;
+		size = 0;
+		modCount++;
+	}
+
+	// closes the gaps left by removed units
+	private void compact() {
+		int to = 0;
+		for (int from = 0; from < end; from++) {
+			Unit unit = order[from];
+			if (unit == null) continue;
+			order[to] = unit;
+			slotById[unit.getId()] = to;
+			to++;
+		}
+		Arrays.fill(order, to, end, null);
+		end = to;
+	}
+
+	@Override
+	public Iterator<Unit> iterator() {
+		return new Iterator<Unit>() {
+
+			private int next = skip(0);
+			private int last = -1;
+			private int expected = modCount;
+
+			private int skip(int slot) {
+				while (slot < end && order[slot] == null) slot++;
+				return slot;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < end;
+			}
+
+			@Override
+			public Unit next() {
+				if (modCount != expected) throw new ConcurrentModificationException();
+				if (next >= end) throw new NoSuchElementException();
+				last = next;
+				next = skip(next+1);
+				return order[last];
+			}
+
+			@Override
+			public void remove() {
+				if (last < 0) throw new IllegalStateException();
+				if (modCount != expected) throw new ConcurrentModificationException();
+				Unit unit = order[last];
+				// without compacting, so the slots ahead stay where they are
+				order[last] = null;
+				byId[unit.getId()] = null;
+				size--;
+				modCount++;
+				expected = modCount;
+				last = -1;
+			}
+		};
+	}
+
+}
@@ -0,0 +1,286 @@
+package structures.basic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The board as bitboards: one bit per tile, bit x*height+y for the tile at (x,y) (the
+ * order of GameState.board and BoardGeometry), in as many longs as the board needs (one
+ * for the 9x5 board). It keeps a mask of the occupied tiles of each player, kept in step
+ * with the tiles by Tile.setUnit() (and Unit.setOwner()) once the tiles are attached, so
+ * the usual questions (where can this unit move to, what can it attack, where can a card
+ * be summoned) are a walk over the BoardGeometry tables testing a bit per tile, or for
+ * the whole board, a few bitwise operations per long.
+ *
+ * It also keeps the provoke aura up to date: for each player, how many of their
+ * provoking units stand next to each tile. The counts change only when a provoking unit
+ * is registered, unregistered, moves or dies, so whether a unit is provoked is a bit test.
+ *
+ * Tiles are always returned in board order, column by column.
+ *
+ */
+public class Bitboard {
+
+	private final BoardGeometry geometry;
+	private final int cells;
+	private final int words;
+
+	// the occupied tiles by owner (0 for a unit that has no owner yet, then players 1 and 2)
+	private final long[][] occupied;
+	private final Tile[] tiles;
+
+	// the units with provoke (see GameState.registerProvokeUnit)
+	private final Set<Unit> provoking = Collections.newSetFromMap(new IdentityHashMap<Unit, Boolean>());
+	// the tiles with a provoking unit on them, by owner
+	private final long[][] provokers;
+	// how many provoking units of each owner are next to each tile
+	private final int[][] aura;
+	// the tiles where aura is above 0, by owner
+	private final long[][] provoked;
+
+	public Bitboard() {
+		this(BoardGeometry.STANDARD);
+	}
+
+	public Bitboard(BoardGeometry geometry) {
+		this.geometry = geometry;
+		this.cells = geometry.getCells();
+		this.words = (cells+63)/64;
+		this.occupied = new long[3][words];
+		this.tiles = new Tile[cells];
+		this.provokers = new long[3][words];
+		this.aura = new int[3][cells];
+		this.provoked = new long[3][words];
+	}
+
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+
+	private static boolean test(long[] mask, int cell) {
+		return (mask[cell>>>6] & (1L<<cell)) != 0;
+	}
+
+	private static void set(long[] mask, int cell) {
+		mask[cell>>>6] |= 1L<<cell;
+	}
+
+	private static void clear(long[] mask, int cell) {
+		mask[cell>>>6] &= ~(1L<<cell);
+	}
+
+	// whether any of masks but the one of player has cell
+	private static boolean testOthers(long[][] masks, int cell, int player) {
+		int own = ownerIndex(player);
+		for (int owner = 0; owner < masks.length; owner++) {
+			if (owner != own && test(masks[owner], cell)) return true;
+		}
+		return false;
+	}
+
+	private static int ownerIndex(int owner) {
+		return owner == 1 || owner == 2 ? owner : 0;
+	}
+
+	/**
+	 * Puts a tile on this board, at its tilex and tiley, and keeps track of its unit from
+	 * now on
+	 * @param tile
+	 */
+	public void attach(Tile tile) {
+		int cell = geometry.cell(tile.getTilex(), tile.getTiley());
+		if (cell < 0) return;
+		tiles[cell] = tile;
+		tile.setBitboard(this);
+		update(tile);
+	}
+
+	/**
+	 * Records who is on the given tile now
+	 * @param tile
+	 */
+	void update(Tile tile) {
+		int cell = geometry.cell(tile.getTilex(), tile.getTiley());
+		if (cell < 0) return;
+		for (int owner = 0; owner < occupied.length; owner++) {
+			clear(occupied[owner], cell);
+			if (test(provokers[owner], cell)) {
+				clear(provokers[owner], cell);
+				spread(owner, cell, -1);
+			}
+		}
+		Unit unit = tile.getUnit();
+		if (unit == null) return;
+		int owner = ownerIndex(unit.getOwner());
+		set(occupied[owner], cell);
+		if (provoking.contains(unit)) {
+			set(provokers[owner], cell);
+			spread(owner, cell, 1);
+		}
+	}
+
+	// adds delta to the aura of owner around cell
+	private void spread(int owner, int cell, int delta) {
+		for (int neighbour : geometry.adjacent(cell)) {
+			int count = aura[owner][neighbour] += delta;
+			if (count > 0) set(provoked[owner], neighbour);
+			else clear(provoked[owner], neighbour);
+		}
+	}
+
+	/**
+	 * Starts the provoke aura of a unit, wherever it is on this board now and later
+	 * @param unit
+	 */
+	public void addProvoker(Unit unit) {
+		if (provoking.add(unit)) resync(unit);
+	}
+
+	/**
+	 * Ends the provoke aura of a unit
+	 * @param unit
+	 */
+	public void removeProvoker(Unit unit) {
+		if (provoking.remove(unit)) resync(unit);
+	}
+
+	private void resync(Unit unit) {
+		Tile tile = unit.getTile();
+		if (tile != null && tile.getUnit() == unit && tile(geometry.cell(tile.getTilex(), tile.getTiley())) == tile) update(tile);
+	}
+
+	/**
+	 * @return whether the tile has nothing on it
+	 */
+	public boolean isEmpty(int cell) {
+		return !test(occupied[0], cell) && !test(occupied[1], cell) && !test(occupied[2], cell);
+	}
+
+	/**
+	 * @return whether the tile has a unit on it that is not the given player's
+	 */
+	public boolean isEnemy(int cell, int player) {
+		return testOthers(occupied, cell, player);
+	}
+
+	/**
+	 * @return the empty tiles a unit at (x,y) can move to
+	 */
+	public List<Tile> movableTiles(int x, int y) {
+		List<Tile> result = new ArrayList<Tile>();
+		int cell = geometry.cell(x, y);
+		if (cell < 0) return result;
+		for (int neighbour : geometry.moves(cell)) {
+			if (isEmpty(neighbour) && tiles[neighbour] != null) result.add(tiles[neighbour]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the tiles next to (x,y) with a unit on them that is not the given player's
+	 */
+	public List<Tile> attackableTiles(int x, int y, int player) {
+		List<Tile> result = new ArrayList<Tile>();
+		int cell = geometry.cell(x, y);
+		if (cell < 0) return result;
+		for (int neighbour : geometry.adjacent(cell)) {
+			if (isEnemy(neighbour, player) && tiles[neighbour] != null) result.add(tiles[neighbour]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return whether there is a unit that is not the given player's next to (x,y)
+	 */
+	public boolean isNextToEnemy(int x, int y, int player) {
+		int cell = geometry.cell(x, y);
+		if (cell < 0) return false;
+		for (int neighbour : geometry.adjacent(cell)) {
+			if (isEnemy(neighbour, player)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the empty tiles next to any unit of the given player
+	 */
+	public List<Tile> summonableTiles(int player) {
+		long[] own = occupied[ownerIndex(player)];
+		long[] around = new long[words];
+		for (int word = 0; word < words; word++) {
+			for (long units = own[word]; units != 0; units &= units-1) {
+				int cell = (word<<6)+Long.numberOfTrailingZeros(units);
+				for (int neighbour : geometry.adjacent(cell)) {
+					if (isEmpty(neighbour)) set(around, neighbour);
+				}
+			}
+		}
+		return tiles(around);
+	}
+
+	/**
+	 * @return the tiles with nothing on them
+	 */
+	public List<Tile> emptyTiles() {
+		long[] empty = new long[words];
+		for (int word = 0; word < words; word++) {
+			empty[word] = ~(occupied[0][word] | occupied[1][word] | occupied[2][word]);
+		}
+		if ((cells & 63) != 0) empty[words-1] &= (1L<<cells)-1; // past the last tile
+		return tiles(empty);
+	}
+
+	/**
+	 * @return whether a unit of the given player at (x,y) is next to a provoking enemy
+	 */
+	public boolean isProvoked(int x, int y, int player) {
+		int cell = geometry.cell(x, y);
+		return cell >= 0 && testOthers(provoked, cell, player);
+	}
+
+	/**
+	 * @return whether the tile at (x,y) has a provoking unit on it that is not the given
+	 * player's
+	 */
+	public boolean isEnemyProvoker(int x, int y, int player) {
+		int cell = geometry.cell(x, y);
+		return cell >= 0 && testOthers(provokers, cell, player);
+	}
+
+	/**
+	 * @return the tiles next to (x,y) with a provoking unit on them that is not the given
+	 * player's
+	 */
+	public List<Tile> provokerTiles(int x, int y, int player) {
+		List<Tile> result = new ArrayList<Tile>();
+		int cell = geometry.cell(x, y);
+		if (cell < 0) return result;
+		for (int neighbour : geometry.adjacent(cell)) {
+			if (testOthers(provokers, neighbour, player) && tiles[neighbour] != null) result.add(tiles[neighbour]);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the attached tile at the given index, or null
+	 */
+	public Tile tile(int cell) {
+		return cell < 0 || cell >= cells ? null : tiles[cell];
+	}
+
+	// the attached tiles in mask
+	private List<Tile> tiles(long[] mask) {
+		List<Tile> result = new ArrayList<Tile>();
+		for (int word = 0; word < words; word++) {
+			for (long bits = mask[word]; bits != 0; bits &= bits-1) {
+				Tile tile = tiles[(word<<6)+Long.numberOfTrailingZeros(bits)];
+				if (tile != null) result.add(tile);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,120 @@
+package structures.basic;
+
+import java.util.Arrays;
+
+/**
+ * The shape of the board: its size, the index of each tile (x*height+y, the same order
+ * as GameState.board and Bitboard) and, for every tile, the indexes of the tiles around
+ * it in each of the patterns the rules use. The tables are worked out once, when the
+ * geometry is made, so going over the neighbours of a tile is a loop over a small array
+ * with no bounds checks; the indexes in each array are in ascending order.
+ *
+ * The game is played on STANDARD, the only board the browser can show, but a GameState
+ * can be given any other size, e.g. for simulations and benchmarks on larger boards.
+ *
+ * The arrays returned are shared and must not be modified.
+ *
+ */
+public class BoardGeometry {
+
+	// (must come before STANDARD, which uses it)
+	private static final int[][] TWO_STEPS = new int[][] { { -2, 0 }, { 0, -2 }, { 0, 2 }, { 2, 0 } };
+
+	// the 9x5 board the game is played on
+	public static final BoardGeometry STANDARD = new BoardGeometry(9, 5);
+
+	private final int width;
+	private final int height;
+	// the 8 tiles around each tile (where a unit attacks, summons and provokes)
+	private final int[][] adjacent;
+	// adjacent plus the tiles 2 steps away in a straight line (where a unit moves)
+	private final int[][] moves;
+
+	public BoardGeometry(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.adjacent = new int[width*height][];
+		this.moves = new int[width*height][];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				int[] around = new int[8];
+				int count = 0;
+				for (int i = -1; i <= 1; i++) {
+					for (int j = -1; j <= 1; j++) {
+						if (i == 0 && j == 0) continue;
+						if (contains(x+i, y+j)) around[count++] = cell(x+i, y+j);
+					}
+				}
+				adjacent[cell(x, y)] = Arrays.copyOf(around, count);
+
+				int[] reach = Arrays.copyOf(around, count+4);
+				for (int[] step : TWO_STEPS) {
+					if (contains(x+step[0], y+step[1])) reach[count++] = cell(x+step[0], y+step[1]);
+				}
+				reach = Arrays.copyOf(reach, count);
+				Arrays.sort(reach);
+				moves[cell(x, y)] = reach;
+			}
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the number of tiles on the board
+	 */
+	public int getCells() {
+		return width*height;
+	}
+
+	/**
+	 * @return whether (x,y) is on the board
+	 */
+	public boolean contains(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * @return the index of the tile at (x,y), or -1 if it is not on the board
+	 */
+	public int cell(int x, int y) {
+		return contains(x, y) ? x*height+y : -1;
+	}
+
+	public int tilex(int cell) {
+		return cell/height;
+	}
+
+	public int tiley(int cell) {
+		return cell%height;
+	}
+
+	/**
+	 * @return the indexes of the tiles next to the given one, diagonals included
+	 */
+	public int[] adjacent(int cell) {
+		return adjacent[cell];
+	}
+
+	/**
+	 * @return the indexes of the tiles a unit on the given tile can move to
+	 */
+	public int[] moves(int cell) {
+		return moves[cell];
+	}
+
+	/**
+	 * @return whether two tiles are next to each other, diagonals included
+	 */
+	public boolean isAdjacent(int cell, int other) {
+		if (cell < 0 || other < 0) return false;
+		return Arrays.binarySearch(adjacent[cell], other) >= 0;
+	}
+
+}
@@ -1,12 +1,10 @@
 package structures.basic;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import akka.actor.ActorRef;
 import commands.BasicCommands;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,20 +15,19 @@ import java.util.List;
  * series of urls
  * that point to the different renderable textures that a tile might have.
  * 
+ * The textures, width and height come from a TileDefinition shared by every tile of
+ * the same kind, so a board of tiles only costs one small object per tile. Setting
+ * one of them gives this tile a definition of its own.
+ * 
  * @author Dr. Richard McCreadie
  *
  */
 public class Tile {
 
 	@JsonIgnore
-	private static ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to read java
-																// objects from a file
-
-	private List<String> tileTextures;
+	private TileDefinition definition = TileDefinition.EMPTY;
 	private int xpos;
 	private int ypos;
-	private int width;
-	private int height;
 	private int tilex;
 	private int tiley;
 
@@ -38,41 +35,49 @@ public class Tile {
 
 	@JsonIgnore
 	private Unit unit;
+	@JsonIgnore
+	private Bitboard bitboard; // the board this tile is on, if any
 
 	public Tile() {
 	}
 
 	public Tile(String tileTexture, int xpos, int ypos, int width, int height, int tilex, int tiley) {
 		super();
-		tileTextures = new ArrayList<String>(1);
+		List<String> tileTextures = new ArrayList<String>(1);
 		tileTextures.add(tileTexture);
+		this.definition = new TileDefinition(tileTextures, width, height);
 		this.xpos = xpos;
 		this.ypos = ypos;
-		this.width = width;
-		this.height = height;
 		this.tilex = tilex;
 		this.tiley = tiley;
 		this.highlightStatus = 0;
 	}
 
 	public Tile(List<String> tileTextures, int xpos, int ypos, int width, int height, int tilex, int tiley) {
+		this(new TileDefinition(tileTextures, width, height), xpos, ypos, tilex, tiley);
+	}
+
+	public Tile(TileDefinition definition, int xpos, int ypos, int tilex, int tiley) {
 		super();
-		this.tileTextures = tileTextures;
+		this.definition = definition;
 		this.xpos = xpos;
 		this.ypos = ypos;
-		this.width = width;
-		this.height = height;
 		this.tilex = tilex;
 		this.tiley = tiley;
 		this.highlightStatus = 0;
 	}
 
+	@JsonIgnore
+	public TileDefinition getDefinition() {
+		return definition;
+	}
+
 	public List<String> getTileTextures() {
-		return tileTextures;
+		return definition.getTileTextures();
 	}
 
 	public void setTileTextures(List<String> tileTextures) {
-		this.tileTextures = tileTextures;
+		this.definition = new TileDefinition(tileTextures, definition.getWidth(), definition.getHeight());
 	}
 
 	public int getXpos() {
@@ -92,19 +97,19 @@ public class Tile {
 	}
 
 	public int getWidth() {
-		return width;
+		return definition.getWidth();
 	}
 
 	public void setWidth(int width) {
-		this.width = width;
+		this.definition = new TileDefinition(definition.getTileTextures(), width, definition.getHeight());
 	}
 
 	public int getHeight() {
-		return height;
+		return definition.getHeight();
 	}
 
 	public void setHeight(int height) {
-		this.height = height;
+		this.definition = new TileDefinition(definition.getTileTextures(), definition.getWidth(), height);
 	}
 
 	public int getTilex() {
@@ -125,21 +130,16 @@ public class Tile {
 
 	/**
 	 * Loads a tile from a configuration file
-	 * parameters.
+	 * parameters. The tile shares the file's TileDefinition.
 	 * 
 	 * @param configFile
 	 * @return
 	 */
 	public static Tile constructTile(String configFile) {
 
-		try {
-			Tile tile = mapper.readValue(new File(configFile), Tile.class);
-			return tile;
-		} catch (Exception e) {
-			e.printStackTrace();
-
-		}
-		return null;
+		TileDefinition definition = TileDefinition.load(configFile);
+		if (definition==null) return null;
+		return new Tile(definition, 0, 0, 0, 0);
 
 	}
 
@@ -161,6 +161,11 @@ public class Tile {
 	// Add setUnit() method.
 	public void setUnit(Unit unit) {
 		this.unit = unit;
+		if (bitboard != null) bitboard.update(this);
+	}
+
+	void setBitboard(Bitboard bitboard) {
+		this.bitboard = bitboard;
 	}
 
 }
@@ -0,0 +1,71 @@
+package structures.basic;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import utils.ContentSnapshot;
+import utils.GameContent;
+
+/**
+ * What every tile of a kind has in common: the textures it can be drawn with and its
+ * size in pixels. A definition is read once from its configuration file (per
+ * ContentSnapshot) and shared by all the tiles on every board, each Tile only holds
+ * its own position, highlight mode and unit. It never changes.
+ *
+ */
+@JsonIgnoreProperties(ignoreUnknown = true) // tile.json also has a position
+public class TileDefinition {
+
+	// a tile made without a configuration file
+	static final TileDefinition EMPTY = new TileDefinition(null, 0, 0);
+
+	private static final ContentSnapshot.Cache<TileDefinition> definitions = new ContentSnapshot.Cache<TileDefinition>(TileDefinition::read);
+
+	private final List<String> tileTextures;
+	private final int width;
+	private final int height;
+
+	@JsonCreator
+	public TileDefinition(@JsonProperty("tileTextures") List<String> tileTextures, @JsonProperty("width") int width, @JsonProperty("height") int height) {
+		this.tileTextures = tileTextures==null ? null : Collections.unmodifiableList(tileTextures);
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * The definition from a configuration file, e.g. StaticConfFiles.tileConf, read the
+	 * first time it is asked for
+	 * @param configFile
+	 * @return the definition, or null if the file cannot be read
+	 */
+	public static TileDefinition load(String configFile) {
+		return definitions.get(configFile);
+	}
+
+	private static TileDefinition read(String configFile) {
+		try {
+			return GameContent.read(configFile, TileDefinition.class);
+		} catch (Exception e) {
+			e.printStackTrace();
+
+		}
+		return null;
+	}
+
+	public List<String> getTileTextures() {
+		return tileTextures;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+}
@@ -176,6 +176,7 @@ public class Unit {
 
 	public void setOwner(int owner) {
 		this.owner = owner;
+		if (tile != null && tile.getUnit() == this) tile.setUnit(this); // the tile's Bitboard tracks owners
 	}
 
 	/**
@@ -312,33 +313,8 @@ public class Unit {
 			return false;
 		}
 
-		// 检查周围是否有敌方单位
-		int[][] directions = new int[][] {
-				{ 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 }, // Adjacent tiles (right, left, down, up)
-				{ 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } // Diagonal tiles
-		};
-
-		int cx = position.getTilex();
-		int cy = position.getTiley();
-
-		// 检查周围格子
-		for (int[] dir : directions) {
-			int nx = cx + dir[0];
-			int ny = cy + dir[1];
-
-			// 检查坐标是否合法
-			if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) {
-				Tile targetTile = gameState.board[nx][ny];
-				Unit targetUnit = targetTile.getUnit();
-
-				// 如果格子有单位，且是敌方单位
-				if (targetUnit != null && targetUnit.getOwner() != this.owner) {
-					return true;
-				}
-			}
-		}
-
-		return false;
+		// 检查周围格子是否有敌方单位
+		return gameState.bitboard.isNextToEnemy(position.getTilex(), position.getTiley(), this.owner);
 	}
 
 	/**
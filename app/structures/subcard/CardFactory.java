@@ -1,13 +1,61 @@
 package structures.subcard;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import structures.basic.Card;
+import structures.subcard.player1.*;
+import structures.subcard.player2.*;
 
 /**
  * 卡牌工厂类，负责创建不同类型的卡牌实例
  * 这个类使用了工厂设计模式，将卡牌的创建与使用分离
+ *
+ * 每种卡牌在下面的注册表中登记一次（配置文件名、类型名和构造方法），
+ * 创建卡牌只需要一次查表，不再使用反射
  */
 public class CardFactory {
-    
+
+    // 类型名 -> 构造方法，例如 "BadOmen" -> BadOmen::new
+    private static final Map<String, Supplier<Card>> byType = new HashMap<String, Supplier<Card>>();
+    // 配置文件名 -> 构造方法，例如 "1_1_c_u_bad_omen.json" -> BadOmen::new
+    private static final Map<String, Supplier<Card>> byConfig = new HashMap<String, Supplier<Card>>();
+    // 卡牌类 -> 配置文件名
+    private static final Map<Class<? extends Card>, String> configByClass = new HashMap<Class<? extends Card>, String>();
+
+    static {
+        // 玩家1卡牌
+        register("1_1_c_u_bad_omen.json", BadOmen.class, BadOmen::new);
+        register("1_2_c_s_hornoftheforsaken.json", HornOfTheForsaken.class, HornOfTheForsaken::new);
+        register("1_3_c_u_gloom_chaser.json", GloomChaser.class, GloomChaser::new);
+        register("1_4_c_u_shadow_watcher.json", ShadowWatcher.class, ShadowWatcher::new);
+        register("1_5_c_s_wraithling_swarm.json", WraithlingSwarm.class, WraithlingSwarm::new);
+        register("1_6_c_u_nightsorrow_assassin.json", NightsorrowAssassin.class, NightsorrowAssassin::new);
+        register("1_7_c_u_rock_pulveriser.json", RockPulveriser.class, RockPulveriser::new);
+        register("1_8_c_s_dark_terminus.json", DarkTerminus.class, DarkTerminus::new);
+        register("1_9_c_u_bloodmoon_priestess.json", BloodmoonPriestess.class, BloodmoonPriestess::new);
+        register("1_a1_c_u_shadowdancer.json", Shadowdancer.class, Shadowdancer::new);
+
+        // 玩家2卡牌
+        register("2_1_c_u_skyrock_golem.json", SkyrockGolem.class, SkyrockGolem::new);
+        register("2_2_c_u_swamp_entangler.json", SwampEntangler.class, SwampEntangler::new);
+        register("2_3_c_u_silverguard_knight.json", SilverguardKnight.class, SilverguardKnight::new);
+        register("2_4_c_u_saberspine_tiger.json", SaberspineTiger.class, SaberspineTiger::new);
+        register("2_5_c_s_beamshock.json", BeamShock.class, BeamShock::new);
+        register("2_6_c_u_young_flamewing.json", YoungFlamewing.class, YoungFlamewing::new);
+        register("2_7_c_u_silverguard_squire.json", SilverguardSquire.class, SilverguardSquire::new);
+        register("2_8_c_u_ironcliff_guardian.json", IroncliffGuardian.class, IroncliffGuardian::new);
+        register("2_9_c_s_sundrop_elixir.json", SundropElixir.class, SundropElixir::new);
+        register("2_a1_c_s_truestrike.json", TrueStrike.class, TrueStrike::new);
+    }
+
+    private static void register(String configFile, Class<? extends Card> cardClass, Supplier<Card> constructor) {
+        byConfig.put(configFile, constructor);
+        byType.put(cardClass.getSimpleName(), constructor);
+        configByClass.put(cardClass, configFile);
+    }
+
     /**
      * 根据卡牌类型创建对应的卡牌实例
      * @param cardType 卡牌类型名称
@@ -15,36 +63,9 @@ public class CardFactory {
      * @return 创建的卡牌实例，如果类型不存在则返回null
      */
     public static Card createCard(String cardType, int id) {
-        Card card = null;
-        
-        // 使用反射动态创建卡牌实例
-        try {
-            // 根据卡牌名称构造完整类名
-            String className = "";
-            
-            // 玩家1卡牌
-            if (isPlayer1Card(cardType)) {
-                className = "structures.subcard.player1." + cardType;
-            }
-            // 玩家2卡牌
-            else if (isPlayer2Card(cardType)) {
-                className = "structures.subcard.player2." + cardType;
-            }
-            
-            // 如果找到了类名，创建实例
-            if (!className.isEmpty()) {
-                Class<?> cardClass = Class.forName(className);
-                card = (Card) cardClass.getDeclaredConstructor().newInstance();
-                card.setId(id);
-            }
-        } catch (Exception e) {
-            System.err.println("Error creating card of type " + cardType + ": " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return card;
+        return create(byType.get(cardType), id);
     }
-    
+
     /**
      * 根据卡牌文件名创建卡牌
      * @param filename 卡牌配置文件名
@@ -52,11 +73,25 @@ public class CardFactory {
      * @return 创建的卡牌实例
      */
     public static Card createCardFromFilename(String filename, int id) {
-        // 解析文件名获取卡牌类型
+        return create(constructorFor(filename), id);
+    }
+
+    /**
+     * 根据卡牌文件名找到卡牌的构造方法
+     * @param filename 卡牌配置文件名
+     * @return 构造方法，如果类型不存在则返回null
+     */
+    public static Supplier<Card> constructorFor(String filename) {
+        Supplier<Card> constructor = byConfig.get(filename);
+        if (constructor != null) {
+            return constructor;
+        }
+
+        // 没有登记的配置文件：解析文件名获取卡牌类型
         // 例如将 "1_1_c_u_bad_omen.json" 转换为 "BadOmen"
         String[] parts = filename.split("_");
         StringBuilder cardTypeName = new StringBuilder();
-        
+
         // 从第4个下划线后开始构建类名
         for (int i = 4; i < parts.length; i++) {
             String part = parts[i];
@@ -68,49 +103,25 @@ public class CardFactory {
             cardTypeName.append(Character.toUpperCase(part.charAt(0)))
                          .append(part.substring(1));
         }
-        
-        return createCard(cardTypeName.toString(), id);
+
+        return byType.get(cardTypeName.toString());
     }
-    
+
     /**
-     * 检查卡牌类型是否属于玩家1
-     * @param cardType 卡牌类型名称
-     * @return 如果是玩家1的卡牌则返回true
+     * 找到卡牌的配置文件名（在OrderedCardLoader.cardsDIR中）
+     * @param card 卡牌
+     * @return 配置文件名，例如 "1_1_c_u_bad_omen.json"，如果没有登记则返回null
      */
-    private static boolean isPlayer1Card(String cardType) {
-        // 玩家1的卡牌类型列表
-        String[] player1Cards = {
-            "BadOmen", "GloomChaser", "RockPulveriser", "ShadowWatcher", 
-            "NightsorrowAssassin", "BloodmoonPriestess", "Shadowdancer",
-            "HornOfTheForsaken", "WraithlingSwarm", "DarkTerminus"
-        };
-        
-        for (String card : player1Cards) {
-            if (card.equals(cardType)) {
-                return true;
-            }
-        }
-        return false;
+    public static String configFileFor(Card card) {
+        return configByClass.get(card.getClass());
     }
-    
-    /**
-     * 检查卡牌类型是否属于玩家2
-     * @param cardType 卡牌类型名称
-     * @return 如果是玩家2的卡牌则返回true
-     */
-    private static boolean isPlayer2Card(String cardType) {
-        // 玩家2的卡牌类型列表
-        String[] player2Cards = {
-            "SwampEntangler", "SilverguardSquire", "SkyrockGolem", 
-            "SaberspineTiger", "SilverguardKnight", "YoungFlamewing",
-            "IroncliffGuardian", "SundropElixir", "TrueStrike", "BeamShock"
-        };
-        
-        for (String card : player2Cards) {
-            if (card.equals(cardType)) {
-                return true;
-            }
+
+    private static Card create(Supplier<Card> constructor, int id) {
+        if (constructor == null) {
+            return null;
         }
-        return false;
+        Card card = constructor.get();
+        card.setId(id);
+        return card;
     }
-}
\ No newline at end of file
+}
@@ -42,32 +42,8 @@ public abstract class CreatureCard extends Card {
             return validTiles;
         }
         
-        // 遍历所有友方单位，查找其周围的空格
-        for (Unit unit : gameState.playerUnits) {
-            if (unit.getOwner() == gameState.currentPlayer) {
-                int x = unit.getPosition().getTilex();
-                int y = unit.getPosition().getTiley();
-                
-                // 检查相邻和对角线格子
-                for (int i = -1; i <= 1; i++) {
-                    for (int j = -1; j <= 1; j++) {
-                        if (i == 0 && j == 0) continue; // 跳过单位自身位置
-                        
-                        int newX = x + i;
-                        int newY = y + j;
-                        
-                        // 检查坐标是否合法
-                        if (newX >= 0 && newX < 9 && newY >= 0 && newY < 5) {
-                            Tile targetTile = gameState.board[newX][newY];
-                            // 只有空格才是有效的目标
-                            if (targetTile.getUnit() == null && !validTiles.contains(targetTile)) {
-                                validTiles.add(targetTile);
-                            }
-                        }
-                    }
-                }
-            }
-        }
+        // 友方单位周围（相邻和对角线）的空格
+        validTiles.addAll(gameState.bitboard.summonableTiles(gameState.currentPlayer));
         
         return validTiles;
     }
@@ -41,11 +41,7 @@ public class BadOmen extends CreatureCard implements Deathwatch {
         BasicCommands.setUnitAttack(out, unit, newAttack);
         
         // 播放buff特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
+        BasicCommands.pause(out, 100);
     }
 }
\ No newline at end of file
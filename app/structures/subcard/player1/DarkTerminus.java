@@ -35,21 +35,13 @@ public class DarkTerminus extends SpellCard {
         Tile targetTile = targetUnit.getTile();
         
         // 播放特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), targetTile);
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), targetTile);
+        BasicCommands.pause(out, 500);
         
         // 消灭目标单位
         UnitManager.removeUnit(out, gameState, targetUnit);
         
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.pause(out, 500);
         
         // 在目标位置召唤幽灵
         UnitManager.summonWraithling(out, gameState, targetTile);
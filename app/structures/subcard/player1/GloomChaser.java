@@ -38,7 +38,7 @@ public class GloomChaser extends CreatureCard implements OpeningGambit {
         int sameY = unit.getPosition().getTiley();
         
         // 检查坐标是否合法且格子为空
-        if (behindX >= 0 && behindX < 9) {
+        if (gameState.geometry.contains(behindX, sameY)) {
             Tile targetTile = gameState.board[behindX][sameY];
             if (targetTile.getUnit() == null) {
                 // 召唤幽灵
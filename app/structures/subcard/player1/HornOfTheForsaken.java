@@ -39,12 +39,8 @@ public class HornOfTheForsaken extends SpellCard {
             // 例如，每次头像攻击后，检查是否有神器，并触发相应效果
             
             // 播放特效
-            try {
-                BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), avatar.getTile());
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), avatar.getTile());
+            BasicCommands.pause(out, 500);
             
             // 显示神器效果提示
             BasicCommands.addPlayer1Notification(out, "Horn of the Forsaken equipped (3)", 2);
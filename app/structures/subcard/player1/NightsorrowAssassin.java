@@ -47,12 +47,8 @@ public class NightsorrowAssassin extends CreatureCard implements OpeningGambit {
             Unit target = targets.get(0);
             
             // 播放特效
-            try {
-                BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), target.getTile());
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), target.getTile());
+            BasicCommands.pause(out, 500);
             
             // 消灭目标
             UnitManager.removeUnit(out, gameState, target);
@@ -67,29 +63,21 @@ public class NightsorrowAssassin extends CreatureCard implements OpeningGambit {
      */
     private List<Unit> getAdjacentInjuredEnemies(Unit unit, GameState gameState) {
         List<Unit> injuredEnemies = new ArrayList<>();
-        int x = unit.getPosition().getTilex();
-        int y = unit.getPosition().getTiley();
+        int cell = gameState.geometry.cell(unit.getPosition().getTilex(), unit.getPosition().getTiley());
+        if (cell < 0) {
+            return injuredEnemies;
+        }
         
         // 检查所有相邻和对角线格子
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                if (i == 0 && j == 0) continue; // 跳过单位自身位置
-                
-                int nx = x + i;
-                int ny = y + j;
-                
-                // 检查坐标是否合法
-                if (nx >= 0 && nx < 9 && ny >= 0 && ny < 5) {
-                    Tile targetTile = gameState.board[nx][ny];
-                    Unit targetUnit = targetTile.getUnit();
-                    
-                    // 如果格子有单位，且是敌方单位，且已受伤
-                    if (targetUnit != null && 
-                        targetUnit.getOwner() != unit.getOwner() && 
-                        targetUnit.getHealth() < getMaxHealth(targetUnit)) {
-                        injuredEnemies.add(targetUnit);
-                    }
-                }
+        for (int neighbour : gameState.geometry.adjacent(cell)) {
+            Tile targetTile = gameState.bitboard.tile(neighbour);
+            Unit targetUnit = targetTile == null ? null : targetTile.getUnit();
+            
+            // 如果格子有单位，且是敌方单位，且已受伤
+            if (targetUnit != null && 
+                targetUnit.getOwner() != unit.getOwner() && 
+                targetUnit.getHealth() < getMaxHealth(targetUnit)) {
+                injuredEnemies.add(targetUnit);
             }
         }
         
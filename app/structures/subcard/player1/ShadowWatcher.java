@@ -47,11 +47,7 @@ public class ShadowWatcher extends CreatureCard implements Deathwatch {
         BasicCommands.setUnitHealth(out, unit, newHealth);
         
         // 播放buff特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
-            Thread.sleep(100);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
+        BasicCommands.pause(out, 100);
     }
 }
\ No newline at end of file
@@ -41,13 +41,9 @@ public class Shadowdancer extends CreatureCard implements Deathwatch {
         
         if (enemyAvatar != null) {
             // 播放攻击特效
-            try {
-                EffectAnimation projectile = BasicObjectBuilders.loadEffect(StaticConfFiles.f1_projectiles);
-                BasicCommands.playProjectileAnimation(out, projectile, 0, unit.getTile(), enemyAvatar.getTile());
-                Thread.sleep(500);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+            EffectAnimation projectile = BasicObjectBuilders.loadEffect(StaticConfFiles.f1_projectiles);
+            BasicCommands.playProjectileAnimation(out, projectile, 0, unit.getTile(), enemyAvatar.getTile());
+            BasicCommands.pause(out, 500);
             
             // 对敌方化身造成1点伤害
             int newEnemyHealth = enemyAvatar.getHealth() - 1;
@@ -74,12 +70,8 @@ public class Shadowdancer extends CreatureCard implements Deathwatch {
             BasicCommands.setUnitHealth(out, unit, newHealth);
             
             // 播放治疗特效
-            try {
-                BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), unit.getTile());
+            BasicCommands.pause(out, 100);
         }
     }
 }
\ No newline at end of file
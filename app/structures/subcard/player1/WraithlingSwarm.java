@@ -5,7 +5,6 @@ import commands.BasicCommands;
 import managers.UnitManager;
 import structures.GameState;
 import structures.basic.Tile;
-import structures.basic.Unit;  // 添加这一行导入Unit类
 import structures.subcard.SpellCard;
 import utils.BasicObjectBuilders;
 import utils.StaticConfFiles;
@@ -30,11 +29,7 @@ public class WraithlingSwarm extends SpellCard {
         // 在指定位置召唤第一个幽灵
         UnitManager.summonWraithling(out, gameState, tile);
         
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.pause(out, 500);
         
         // 查找两个额外的空格来召唤幽灵
         List<Tile> emptyTiles = getAdditionalEmptyTiles(gameState, tile);
@@ -42,11 +37,7 @@ public class WraithlingSwarm extends SpellCard {
         // 召唤额外的幽灵
         for (int i = 0; i < Math.min(2, emptyTiles.size()); i++) {
             UnitManager.summonWraithling(out, gameState, emptyTiles.get(i));
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            BasicCommands.pause(out, 500);
         }
     }
     
@@ -59,32 +50,8 @@ public class WraithlingSwarm extends SpellCard {
             return validTargets;
         }
         
-        // 查找所有友方单位周围的空格
-        for (Unit unit : gameState.playerUnits) {
-            if (unit.getOwner() == gameState.currentPlayer) {
-                int x = unit.getPosition().getTilex();
-                int y = unit.getPosition().getTiley();
-                
-                // 检查相邻和对角线格子
-                for (int i = -1; i <= 1; i++) {
-                    for (int j = -1; j <= 1; j++) {
-                        if (i == 0 && j == 0) continue; // 跳过单位自身位置
-                        
-                        int newX = x + i;
-                        int newY = y + j;
-                        
-                        // 检查坐标是否合法
-                        if (newX >= 0 && newX < 9 && newY >= 0 && newY < 5) {
-                            Tile targetTile = gameState.board[newX][newY];
-                            // 只有空格才是有效的目标
-                            if (targetTile.getUnit() == null && !validTargets.contains(targetTile)) {
-                                validTargets.add(targetTile);
-                            }
-                        }
-                    }
-                }
-            }
-        }
+        // 所有友方单位周围（相邻和对角线）的空格
+        validTargets.addAll(gameState.bitboard.summonableTiles(gameState.currentPlayer));
         
         return validTargets;
     }
@@ -97,25 +64,16 @@ public class WraithlingSwarm extends SpellCard {
      */
     private List<Tile> getAdditionalEmptyTiles(GameState gameState, Tile firstTile) {
         List<Tile> emptyTiles = new ArrayList<>();
-        int x = firstTile.getTilex();
-        int y = firstTile.getTiley();
+        int cell = gameState.geometry.cell(firstTile.getTilex(), firstTile.getTiley());
+        if (cell < 0) {
+            return emptyTiles;
+        }
         
-        // 检查相邻和对角线格子
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                if (i == 0 && j == 0) continue; // 跳过中心位置
-                
-                int newX = x + i;
-                int newY = y + j;
-                
-                // 检查坐标是否合法
-                if (newX >= 0 && newX < 9 && newY >= 0 && newY < 5) {
-                    Tile targetTile = gameState.board[newX][newY];
-                    // 只有空格才是有效的目标
-                    if (targetTile.getUnit() == null) {
-                        emptyTiles.add(targetTile);
-                    }
-                }
+        // 检查相邻和对角线格子，只有空格才是有效的目标
+        for (int neighbour : gameState.geometry.adjacent(cell)) {
+            Tile targetTile = gameState.bitboard.tile(neighbour);
+            if (targetTile != null && targetTile.getUnit() == null) {
+                emptyTiles.add(targetTile);
             }
         }
         
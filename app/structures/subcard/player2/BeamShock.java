@@ -31,12 +31,8 @@ public class BeamShock extends SpellCard {
         if (targetUnit == null) return;
         
         // 播放特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), tile);
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_martyrdom), tile);
+        BasicCommands.pause(out, 500);
         
         // 眩晕目标单位（使其在下一回合无法移动或攻击）
         stunUnit(targetUnit);
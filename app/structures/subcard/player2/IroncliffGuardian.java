@@ -53,14 +53,7 @@ public class IroncliffGuardian extends CreatureCard implements Provoke, Airdrop
         List<Tile> summonableTiles = new ArrayList<>();
         
         // 空投能力允许单位被召唤到棋盘上的任何空格
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 5; y++) {
-                Tile tile = gameState.board[x][y];
-                if (tile.getUnit() == null) {
-                    summonableTiles.add(tile);
-                }
-            }
-        }
+        summonableTiles.addAll(gameState.bitboard.emptyTiles());
         
         return summonableTiles;
     }
@@ -60,7 +60,7 @@ public class SilverguardSquire extends CreatureCard implements OpeningGambit {
      */
     private void checkAndBuffUnit(ActorRef out, GameState gameState, int x, int y, int owner) {
         // 检查坐标是否合法
-        if (x >= 0 && x < 9 && y >= 0 && y < 5) {
+        if (gameState.geometry.contains(x, y)) {
             Tile targetTile = gameState.board[x][y];
             Unit targetUnit = targetTile.getUnit();
             
@@ -78,12 +78,8 @@ public class SilverguardSquire extends CreatureCard implements OpeningGambit {
                 BasicCommands.setUnitHealth(out, targetUnit, newHealth);
                 
                 // 播放buff特效
-                try {
-                    BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), targetTile);
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+                BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), targetTile);
+                BasicCommands.pause(out, 100);
             }
         }
     }
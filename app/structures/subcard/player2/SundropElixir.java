@@ -50,12 +50,8 @@ public class SundropElixir extends SpellCard {
         }
         
         // 播放治疗特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), tile);
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_buff), tile);
+        BasicCommands.pause(out, 500);
     }
     
     @Override
@@ -32,12 +32,8 @@ public class TrueStrike extends SpellCard {
         if (targetUnit == null) return;
         
         // 播放特效
-        try {
-            BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_inmolation), tile);
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        BasicCommands.playEffectAnimation(out, BasicObjectBuilders.loadEffect(StaticConfFiles.f1_inmolation), tile);
+        BasicCommands.pause(out, 500);
         
         // 造成2点伤害
         int newHealth = targetUnit.getHealth() - 2;
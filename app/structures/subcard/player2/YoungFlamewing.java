@@ -39,14 +39,7 @@ public class YoungFlamewing extends CreatureCard implements Flying {
         List<Tile> movableTiles = new ArrayList<>();
         
         // 飞行单位可以移动到棋盘上的任何空格
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 5; y++) {
-                Tile tile = gameState.board[x][y];
-                if (tile.getUnit() == null) {
-                    movableTiles.add(tile);
-                }
-            }
-        }
+        movableTiles.addAll(gameState.bitboard.emptyTiles());
         
         return movableTiles;
     }
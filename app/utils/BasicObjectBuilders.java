@@ -1,6 +1,8 @@
 package utils;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -8,8 +10,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import structures.basic.Card;
 import structures.basic.EffectAnimation;
+import structures.basic.Position;
 import structures.basic.Tile;
+import structures.basic.TileDefinition;
 import structures.basic.Unit;
+import structures.basic.UnitAnimation;
+import structures.basic.UnitAnimationSet;
 
 /**
  * This class contains methods for producing basic objects from configuration files
@@ -22,6 +28,9 @@ public class BasicObjectBuilders {
 	@JsonIgnore
 	protected static ObjectMapper mapper = new ObjectMapper(); // Jackson Java Object Serializer, is used to read java objects from a file
 
+	// Units as read from each configuration file, see loadUnit()
+	private static final ContentSnapshot.Cache<Unit> unitPrototypes = new ContentSnapshot.Cache<Unit>(BasicObjectBuilders::readUnit);
+
 	/**
 	 * This class produces a Card object (or anything that extends Card) given a configuration
 	 * file. Configuration files can be found in the conf/gameconfs directory. The card should
@@ -37,14 +46,11 @@ public class BasicObjectBuilders {
 	 */
 	public static Card loadCard(String configurationFile, int id, Class<? extends Card> classtype) {
 		try {
-			Card card = mapper.readValue(new File(configurationFile), classtype);
+			Card card = GameContent.read(configurationFile, classtype);
 
-			// If the card is a creature, add its idle animation as the card animation
-			if (card.isCreature()) {
-				Unit unit = loadUnit(card.getUnitConfig(), -1, Unit.class);
-				List<String> idleAnimation = unit.getAnimations().getAllFrames().subList(unit.getAnimations().getIdle().getFrameStartEndIndices()[0], unit.getAnimations().getIdle().getFrameStartEndIndices()[1]);
-				card.getMiniCard().setAnimationFrames(idleAnimation.toArray(new String[idleAnimation.size()]));
-			}
+			// The MiniCard (with the unit's idle animation for a creature) and BigCard are
+			// shared by every card loaded from this file
+			CardPresentations.hydrate(card, configurationFile);
 
 			card.setId(id);
 			return card;
@@ -58,18 +64,13 @@ public class BasicObjectBuilders {
 	/**
 	 * This class produces a EffectAnimation object given a configuration
 	 * file. Configuration files can be found in the conf/gameconfs directory.
+	 * The effect comes from the EffectRegistry, already read, and is shared, so it
+	 * must not be modified.
 	 * @param configurationFile
 	 * @return
 	 */
 	public static EffectAnimation loadEffect(String configurationFile) {
-		try {
-			EffectAnimation effect = mapper.readValue(new File(configurationFile), EffectAnimation.class);
-			return effect;
-		} catch (Exception e) {
-			e.printStackTrace();
-
-		}
-		return null;
+		return EffectRegistry.get(configurationFile);
 	}
 
 	/**
@@ -77,119 +78,47 @@ public class BasicObjectBuilders {
 	 * in the conf/gameconfs directory. The unit needs to be given a unique identifier
 	 * (id). This method requires a classtype argument that specifies what type of
 	 * unit to create. 
+	 * 
+	 * Each file is only read once (per ContentSnapshot). Later calls copy the unit read the first time: the
+	 * id, animation state and position are its own, while the animations and image
+	 * correction, which never change, are shared by every unit from the same file.
 	 * @param configFile
 	 * @return
 	 */
 	public static Unit loadUnit(String configFile, int id,  Class<? extends Unit> classType) {
 
-		try {
-			Unit unit = mapper.readValue(new File(configFile), classType);
-
-			// identify start and end frames automatically based on file names
-			// IDLE
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_idle_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getIdle().setFrameStartEndIndices(frameIndexes);
-			}
-
-			// DEATH
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_death_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getDeath().setFrameStartEndIndices(frameIndexes);
-			}
+		Unit prototype = unitPrototypes.get(configFile);
+		if (prototype==null) return null;
 
-			// ATTACK
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_attack_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getAttack().setFrameStartEndIndices(frameIndexes);
-			}
-
-			// MOVE
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_run_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getMove().setFrameStartEndIndices(frameIndexes);
-			}
-
-			// CHANNEL
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_castloop_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getChannel().setFrameStartEndIndices(frameIndexes);
-			}
+		try {
+			Unit unit = classType==Unit.class ? new Unit() : classType.getDeclaredConstructor().newInstance();
+			unit.setId(id);
+			unit.setAnimation(prototype.getAnimation());
+			Position position = prototype.getPosition();
+			if (position!=null) unit.setPosition(new Position(position.getXpos(), position.getYpos(), position.getTilex(), position.getTiley()));
+			unit.setAnimations(prototype.getAnimations());
+			unit.setCorrection(prototype.getCorrection());
+			return unit;
+		} catch (Exception e) {
+			e.printStackTrace();
 
-			// HIT
-			{
-				int startframe = 0; int endframe = 0; int index = 0; boolean inAnimation = false;
-				for (String framename: unit.getAnimations().getAllFrames()) {
-					if (framename.contains("_hit_")) {
-						if (startframe==0) { startframe=index; inAnimation=true;}
-					} else {
-						if (inAnimation) { endframe=index-1; break;}
-					}
-					index++;
-				}
-				if (endframe==0) endframe=index;
-				int[] frameIndexes = {startframe, endframe};
-				if (inAnimation) unit.getAnimations().getChannel().setFrameStartEndIndices(frameIndexes);
-			}
+		}
+		return null;
+	}
 
-			// add full address to animation frames
-			for (int i =0; i<unit.getAnimations().getAllFrames().size(); i++) {
-				unit.getAnimations().getAllFrames().set(i, unit.getAnimations().getFrameDIR()+unit.getAnimations().getAllFrames().get(i));
-			}
+	/**
+	 * Reads a unit configuration file and works out the frames of each animation
+	 * @param configFile
+	 * @return the unit, or null if the file could not be read
+	 */
+	private static Unit readUnit(String configFile) {
 
+		try {
+			Unit unit = GameContent.read(configFile, Unit.class);
 
+			// identify start and end frames automatically based on file names
+			indexAnimationFrames(unit.getAnimations());
 
-			unit.setId(id);
 			return unit;
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -199,6 +128,56 @@ public class BasicObjectBuilders {
 
 	}
 
+	// What the frames of each animation have in their names (e.g. f4_gor_idle_000.png), in
+	// the order idle, death, attack, move, channel, hit
+	private static final String[] animationTags = {"_idle_", "_death_", "_attack_", "_run_", "_castloop_", "_hit_"};
+
+	/**
+	 * Works out the start and end frame of each of the unit's animations from the frame
+	 * names, and adds the frame directory to every frame, all in a single pass over the
+	 * frames. The indices are exactly those the six scans loadUnit used to make gave
+	 * (see FrameIndexBenchmark): each tag's first run of frames, a run starting at frame 0
+	 * is recorded from frame 1, and the hit frames go to channel. Animations the unit has
+	 * no frames for keep the indices from the configuration file.
+	 * @param animations
+	 */
+	public static void indexAnimationFrames(UnitAnimationSet animations) {
+		List<String> frames = animations.getAllFrames();
+		List<String> paths = new ArrayList<String>(frames.size());
+		int tags = animationTags.length;
+		int[] start = new int[tags];
+		int[] end = new int[tags];
+		int[] stop = new int[tags]; // where the scan for the tag stopped
+		boolean[] inAnimation = new boolean[tags];
+		boolean[] done = new boolean[tags];
+		Arrays.fill(stop, frames.size());
+
+		for (int index = 0; index < frames.size(); index++) {
+			String frame = frames.get(index);
+			for (int t = 0; t < tags; t++) {
+				if (done[t]) continue;
+				if (frame.contains(animationTags[t])) {
+					if (start[t]==0) { start[t]=index; inAnimation[t]=true;}
+				} else if (inAnimation[t]) {
+					end[t] = index-1;
+					stop[t] = index;
+					done[t] = true;
+				}
+			}
+			paths.add(animations.getFrameDIR()+frame);
+		}
+
+		// the hit frames have always been written to channel
+		UnitAnimation[] targets = {animations.getIdle(), animations.getDeath(), animations.getAttack(), animations.getMove(), animations.getChannel(), animations.getChannel()};
+		for (int t = 0; t < tags; t++) {
+			if (end[t]==0) end[t] = stop[t];
+			if (inAnimation[t] && targets[t]!=null) targets[t].setFrameStartEndIndices(new int[] {start[t], end[t]});
+		}
+
+		// shared by every unit loaded from this file from now on
+		animations.setAllFrames(Collections.unmodifiableList(paths));
+	}
+
 	/**
 	 * Generates a tile object with x and y indices
 	 * @param x
@@ -210,13 +189,12 @@ public class BasicObjectBuilders {
 		int gridTopLeftx = 410;
 		int gridTopLefty = 280;
 
-		Tile tile = Tile.constructTile(StaticConfFiles.tileConf);
-		tile.setXpos((tile.getWidth()*x)+(gridmargin*x)+gridTopLeftx);
-		tile.setYpos((tile.getHeight()*y)+(gridmargin*y)+gridTopLefty);
-		tile.setTilex(x);
-		tile.setTiley(y);
+		// the textures and size are shared by every tile, only the position is this tile's
+		TileDefinition definition = TileDefinition.load(StaticConfFiles.tileConf);
+		int xpos = (definition.getWidth()*x)+(gridmargin*x)+gridTopLeftx;
+		int ypos = (definition.getHeight()*y)+(gridmargin*y)+gridTopLefty;
 
-		return tile;
+		return new Tile(definition, xpos, ypos, x, y);
 
 	}
 
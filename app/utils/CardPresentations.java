@@ -0,0 +1,83 @@
+package utils;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import structures.basic.BigCard;
+import structures.basic.Card;
+import structures.basic.MiniCard;
+import structures.basic.Unit;
+import structures.subcard.CardFactory;
+
+/**
+ * What each kind of card looks like in the hand (its MiniCard and BigCard). Cards in a
+ * deck only carry their rules (cost, attack, health, behaviour); the first time a card
+ * of a kind is drawn its configuration file is read and the result is shared by every
+ * card of that kind, in every game using the same ContentSnapshot. The MiniCard and
+ * BigCard must not be modified.
+ *
+ */
+public class CardPresentations {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private static class Presentation {
+		final MiniCard miniCard;
+		final BigCard bigCard;
+
+		Presentation(MiniCard miniCard, BigCard bigCard) {
+			this.miniCard = miniCard;
+			this.bigCard = bigCard;
+		}
+	}
+
+	// configuration file -> what cards from it look like
+	private static final ContentSnapshot.Cache<Presentation> presentations = new ContentSnapshot.Cache<Presentation>(CardPresentations::read);
+
+	/**
+	 * Gives a card its MiniCard and BigCard if it does not have them yet. The
+	 * configuration file comes from the CardFactory.
+	 * @param card
+	 */
+	public static void hydrate(Card card) {
+		if (card.getMiniCard()!=null && card.getBigCard()!=null) return;
+		String configFile = CardFactory.configFileFor(card);
+		if (configFile!=null) hydrate(card, OrderedCardLoader.cardsDIR+configFile);
+	}
+
+	/**
+	 * Gives a card the MiniCard and BigCard from a configuration file
+	 * @param card
+	 * @param configFile
+	 */
+	public static void hydrate(Card card, String configFile) {
+		Presentation presentation = presentations.get(configFile);
+		if (presentation==null) return;
+		card.setMiniCard(presentation.miniCard);
+		card.setBigCard(presentation.bigCard);
+	}
+
+	private static Presentation read(String configFile) {
+		try {
+			JsonNode config = GameContent.read(configFile, JsonNode.class);
+			MiniCard miniCard = mapper.treeToValue(config.get("miniCard"), MiniCard.class);
+			BigCard bigCard = mapper.treeToValue(config.get("bigCard"), BigCard.class);
+
+			// If the card is a creature, add its idle animation as the card animation
+			if (config.path("isCreature").asBoolean()) {
+				Unit unit = BasicObjectBuilders.loadUnit(config.get("unitConfig").asText(), -1, Unit.class);
+				int[] idle = unit.getAnimations().getIdle().getFrameStartEndIndices();
+				List<String> idleAnimation = unit.getAnimations().getAllFrames().subList(idle[0], idle[1]);
+				miniCard.setAnimationFrames(idleAnimation.toArray(new String[idleAnimation.size()]));
+			}
+			return new Presentation(miniCard, bigCard);
+		} catch (Exception e) {
+			e.printStackTrace();
+
+		}
+		return null;
+	}
+
+}
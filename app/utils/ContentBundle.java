@@ -0,0 +1,289 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * The whole of the game content (conf/gameconfs) compiled into one file, so that it can
+ * be loaded with one memory map instead of dozens of small file reads. Entries are kept
+ * as CBOR and only decoded when they are asked for.
+ *
+ * The file starts with a header and an index:
+ *   int magic ("GCNB"), int version, long source fingerprint, int entry count
+ *   for each entry: short name length, name (UTF-8), int offset, int length
+ * followed by the entries, each the CBOR of one configuration file. Names are relative
+ * to the content directory, e.g. cards/1_1_c_u_bad_omen.json, and are in the order the
+ * directories were listed when the bundle was compiled.
+ *
+ * The fingerprint (see fingerprint()) is of the loose files the bundle was compiled
+ * from, so a bundle that is out of date with them can be told by isStale() without
+ * reading them. The bundle is compiled by the build, with sbt contentBundle (see
+ * project/ContentBundlePlugin.scala), which stage and dist ship in place of the loose
+ * files; GameContent only maps it, and reads the loose files if it is missing or stale.
+ * It can also be compiled by hand, from the project root with:
+ *   ContentBundle [content directory] [bundle file]
+ *
+ */
+public class ContentBundle {
+
+	public static final String CONTENT_DIR = "conf/gameconfs";
+	public static final String DEFAULT_FILE = "conf/gameconfs.bundle";
+
+	static final int MAGIC = 0x47434e42;
+	static final int VERSION = 2;
+	static final int HEADER = 4+4+8+4;
+
+	private static final ObjectMapper jsonMapper = new ObjectMapper();
+	private static final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+	private final ByteBuffer buffer; // mapped from a file, or in memory (see build())
+	private final long fingerprint; // of the loose files it was compiled from
+	private final Map<String, int[]> entries; // name -> {offset, length}
+	private final Map<String, List<String>> directories; // directory -> names of its entries
+
+	private ContentBundle(ByteBuffer buffer, long fingerprint, Map<String, int[]> entries, Map<String, List<String>> directories) {
+		this.buffer = buffer;
+		this.fingerprint = fingerprint;
+		this.entries = entries;
+		this.directories = directories;
+	}
+
+	/**
+	 * Maps a bundle into memory and reads its index. The entries themselves are not
+	 * touched until read() is called.
+	 * @param file
+	 * @return
+	 * @throws IOException if the file is missing or not a content bundle
+	 */
+	public static ContentBundle open(Path file) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		return index(buffer, file.toString());
+	}
+
+	/**
+	 * Compiles every .json file under contentDir into a bundle held in memory, e.g. to
+	 * pick up changes without writing a bundle file
+	 * @param contentDir
+	 * @return
+	 * @throws IOException if a file cannot be read or is not valid JSON
+	 */
+	public static ContentBundle build(Path contentDir) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		write(contentDir, bytes);
+		return index(ByteBuffer.wrap(bytes.toByteArray()), contentDir.toString());
+	}
+
+	private static ContentBundle index(ByteBuffer buffer, String source) throws IOException {
+		if (buffer.remaining()<HEADER || buffer.getInt()!=MAGIC) throw new IOException(source+" is not a content bundle");
+		int version = buffer.getInt();
+		if (version!=VERSION) throw new IOException(source+" has unsupported version "+version);
+
+		long fingerprint = buffer.getLong();
+		int count = buffer.getInt();
+		Map<String, int[]> entries = new HashMap<String, int[]>(count*2);
+		Map<String, List<String>> directories = new HashMap<String, List<String>>();
+		for (int i = 0; i < count; i++) {
+			byte[] name = new byte[buffer.getShort()];
+			buffer.get(name);
+			String path = new String(name, StandardCharsets.UTF_8);
+			entries.put(path, new int[] {buffer.getInt(), buffer.getInt()});
+
+			int slash = path.lastIndexOf('/');
+			String directory = slash<0 ? "" : path.substring(0, slash);
+			directories.computeIfAbsent(directory, d -> new ArrayList<String>()).add(path.substring(slash+1));
+		}
+		for (Map.Entry<String, List<String>> directory : directories.entrySet()) {
+			directory.setValue(Collections.unmodifiableList(directory.getValue()));
+		}
+		return new ContentBundle(buffer, fingerprint, entries, directories);
+	}
+
+	/**
+	 * A fingerprint of the .json files under contentDir, from their names, sizes and
+	 * modification times (so without reading them). It changes when a file is edited,
+	 * added, removed or renamed.
+	 * @param contentDir
+	 * @return
+	 * @throws IOException if contentDir is not a directory
+	 */
+	public static long fingerprint(Path contentDir) throws IOException {
+		return fingerprint(contentDir.toFile(), "");
+	}
+
+	private static long fingerprint(File directory, String prefix) throws IOException {
+		String[] filenames = directory.list();
+		if (filenames==null) throw new IOException(directory+" is not a directory");
+		long fingerprint = 0;
+		for (String filename : filenames) {
+			File file = new File(directory, filename);
+			if (file.isDirectory()) fingerprint += fingerprint(file, prefix+filename+"/");
+			else if (filename.endsWith(".json")) {
+				long hash = (prefix+filename).hashCode();
+				hash = hash*31+file.length();
+				hash = hash*31+file.lastModified();
+				fingerprint += hash*0x9e3779b97f4a7c15L; // spread the bits, the sum does not depend on the listing order
+			}
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * @param contentDir
+	 * @return whether the loose files in contentDir have changed since this bundle was
+	 * compiled from them; false if there is no contentDir to compare with
+	 */
+	public boolean isStale(Path contentDir) {
+		if (!Files.isDirectory(contentDir)) return false;
+		try {
+			return fingerprint(contentDir)!=fingerprint;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @param name relative to the content directory, e.g. units/wraithling.json
+	 * @return whether the bundle has an entry with this name
+	 */
+	public boolean contains(String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Decodes one entry. Safe to call from several threads at once.
+	 * @param name relative to the content directory, e.g. units/wraithling.json
+	 * @param type what to decode it into
+	 * @return
+	 * @throws IOException if there is no such entry or it does not decode into type
+	 */
+	public <T> T read(String name, Class<T> type) throws IOException {
+		int[] entry = entries.get(name);
+		if (entry==null) throw new IOException("no "+name+" in the content bundle");
+		ByteBuffer data = buffer.duplicate(); // its own position, the mapping is shared
+		data.position(entry[0]);
+		data.limit(entry[0]+entry[1]);
+		return cborMapper.readValue(new ByteBufferBackedInputStream(data), type);
+	}
+
+	/**
+	 * @param directory relative to the content directory, e.g. cards
+	 * @return the names of the entries in the directory, or an empty list
+	 */
+	public List<String> list(String directory) {
+		List<String> names = directories.get(directory);
+		return names==null ? Collections.<String>emptyList() : names;
+	}
+
+	/**
+	 * @return how many entries the bundle has
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Compiles every .json file under contentDir into a bundle. Each file is parsed, so
+	 * a broken configuration file fails here rather than in a game.
+	 * @param contentDir
+	 * @param bundleFile
+	 * @return how many entries were written
+	 * @throws IOException
+	 */
+	public static int compile(Path contentDir, Path bundleFile) throws IOException {
+		Path temporary = bundleFile.resolveSibling(bundleFile.getFileName()+".tmp");
+		int count;
+		try (OutputStream file = Files.newOutputStream(temporary)) {
+			count = write(contentDir, new BufferedOutputStream(file));
+		}
+		// replace the old bundle in one step, a running server may have it mapped
+		Files.move(temporary, bundleFile, StandardCopyOption.REPLACE_EXISTING);
+		return count;
+	}
+
+	private static int write(Path contentDir, OutputStream stream) throws IOException {
+		// taken before reading, so that a file changed while compiling makes the bundle stale
+		long fingerprint = fingerprint(contentDir);
+		Map<String, byte[]> encoded = new LinkedHashMap<String, byte[]>();
+		collect(contentDir.toFile(), "", encoded);
+
+		int indexSize = HEADER;
+		for (String name : encoded.keySet()) indexSize += 2+name.getBytes(StandardCharsets.UTF_8).length+8;
+
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(fingerprint);
+		out.writeInt(encoded.size());
+		int offset = indexSize;
+		for (Map.Entry<String, byte[]> entry : encoded.entrySet()) {
+			byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			out.writeShort(name.length);
+			out.write(name);
+			out.writeInt(offset);
+			out.writeInt(entry.getValue().length);
+			offset += entry.getValue().length;
+		}
+		for (byte[] data : encoded.values()) out.write(data);
+		out.flush();
+		return encoded.size();
+	}
+
+	/**
+	 * Adds the files of a directory, then its subdirectories, in the order the directory
+	 * lists them
+	 */
+	private static void collect(File directory, String prefix, Map<String, byte[]> encoded) throws IOException {
+		String[] filenames = directory.list();
+		if (filenames==null) throw new IOException(directory+" is not a directory");
+		List<String> subdirectories = new ArrayList<String>();
+		for (String filename : filenames) {
+			File file = new File(directory, filename);
+			if (file.isDirectory()) subdirectories.add(filename);
+			else if (filename.endsWith(".json")) {
+				JsonNode content = jsonMapper.readTree(file);
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+				cborMapper.writeValue(bytes, content);
+				encoded.put(prefix+filename, bytes.toByteArray());
+			}
+		}
+		for (String subdirectory : subdirectories) {
+			collect(new File(directory, subdirectory), prefix+subdirectory+"/", encoded);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		Path contentDir = Paths.get(args.length>0 ? args[0] : CONTENT_DIR);
+		Path bundleFile = Paths.get(args.length>1 ? args[1] : DEFAULT_FILE);
+		long start = System.currentTimeMillis();
+		int count = compile(contentDir, bundleFile);
+		System.out.println("Compiled "+count+" files from "+contentDir+" into "+bundleFile+" ("+Files.size(bundleFile)/1024+" KB) in "+(System.currentTimeMillis()-start)+" ms");
+	}
+
+}
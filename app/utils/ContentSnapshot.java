@@ -0,0 +1,141 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One version of the game content: the configuration files as they were when it was
+ * built, plus everything worked out from them so far (unit prototypes, deck templates,
+ * card presentations, ...) in Caches. The content never changes; when the files change,
+ * GameContent publishes a new snapshot instead.
+ *
+ * A game keeps the snapshot it started with. It binds it to the thread processing each
+ * of its events with begin() and end(), so that everything loaded during the event
+ * comes from that snapshot. Without one bound, the latest snapshot is used.
+ *
+ */
+public class ContentSnapshot {
+
+	private static final ThreadLocal<ContentSnapshot> bound = new ThreadLocal<ContentSnapshot>();
+	private static final String prefix = ContentBundle.CONTENT_DIR+"/";
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	/**
+	 * Something worked out from the content, once per snapshot and key, e.g. the unit
+	 * read from each unit configuration file. get() answers from the current snapshot.
+	 * Values must not be modified, they are shared by every game using the snapshot.
+	 */
+	public static class Cache<T> {
+
+		private final Function<String, T> compute;
+
+		/**
+		 * @param compute works out the value for a key, or returns null if there is none
+		 */
+		public Cache(Function<String, T> compute) {
+			this.compute = compute;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T get(String key) {
+			return (T) GameContent.current().values(this).computeIfAbsent(key, compute);
+		}
+	}
+
+	private final long version;
+	private final ContentBundle bundle; // null to read the loose files as they are now
+	private final Map<Cache<?>, Map<String, Object>> caches = new ConcurrentHashMap<Cache<?>, Map<String, Object>>();
+
+	/**
+	 * @param version
+	 * @param bundle the content, or null to read the loose files (which may change under it)
+	 */
+	public ContentSnapshot(long version, ContentBundle bundle) {
+		this.version = version;
+		this.bundle = bundle;
+	}
+
+	/**
+	 * @return the snapshot bound to this thread, or null
+	 */
+	public static ContentSnapshot bound() {
+		return bound.get();
+	}
+
+	/**
+	 * Binds this snapshot to the current thread, until end()
+	 */
+	public void begin() {
+		bound.set(this);
+	}
+
+	public void end() {
+		if (bound.get()==this) bound.remove();
+	}
+
+	/**
+	 * Runs task with this snapshot bound, then puts back whatever was bound before
+	 * @param task
+	 */
+	public void with(Runnable task) {
+		ContentSnapshot previous = bound.get();
+		bound.set(this);
+		try {
+			task.run();
+		} finally {
+			if (previous==null) bound.remove();
+			else bound.set(previous);
+		}
+	}
+
+	/**
+	 * @return counts up from 1 with every reload
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Reads a configuration file into an object
+	 * @param configFile e.g. conf/gameconfs/units/wraithling.json
+	 * @param type
+	 * @return
+	 * @throws IOException
+	 */
+	public <T> T read(String configFile, Class<T> type) throws IOException {
+		if (bundle!=null && configFile.startsWith(prefix)) {
+			String name = configFile.substring(prefix.length());
+			if (bundle.contains(name)) return bundle.read(name, type);
+		}
+		return mapper.readValue(new File(configFile), type);
+	}
+
+	/**
+	 * Lists the configuration files in a directory, like File.list()
+	 * @param directory e.g. conf/gameconfs/cards/
+	 * @return
+	 */
+	public List<String> list(String directory) {
+		if (bundle!=null && directory.startsWith(prefix)) {
+			String name = directory.substring(prefix.length());
+			if (name.endsWith("/")) name = name.substring(0, name.length()-1);
+			List<String> names = bundle.list(name);
+			if (!names.isEmpty()) return names;
+		}
+		String[] filenames = new File(directory).list();
+		return filenames==null ? Collections.<String>emptyList() : Arrays.asList(filenames);
+	}
+
+	private Map<String, Object> values(Cache<?> cache) {
+		return caches.computeIfAbsent(cache, c -> new ConcurrentHashMap<String, Object>());
+	}
+
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the game content directory (and its subdirectories) on a thread of its own,
+ * and asks GameContent to reload once the files have stopped changing for a moment, so
+ * that an editor saving several files causes one reload. Games are never held up: they
+ * go on with their own snapshot while the new one is built.
+ *
+ */
+public class ContentWatcher implements Closeable {
+
+	// how long the files must stay unchanged before reloading
+	private static final long QUIET_MS = 200;
+
+	private final Path contentDir;
+	private final WatchService watchService;
+	private final Map<WatchKey, Path> directories = new ConcurrentHashMap<WatchKey, Path>();
+	private final Thread thread;
+	private volatile boolean open = true;
+
+	/**
+	 * Starts watching
+	 * @param contentDir
+	 * @throws IOException
+	 */
+	public ContentWatcher(Path contentDir) throws IOException {
+		this.contentDir = contentDir;
+		this.watchService = contentDir.getFileSystem().newWatchService();
+		register(contentDir);
+		thread = new Thread(this::run, "content-watcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	public Path getContentDir() {
+		return contentDir;
+	}
+
+	public boolean isOpen() {
+		return open;
+	}
+
+	private void register(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+				directories.put(path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), path);
+			}
+		}
+	}
+
+	private void run() {
+		try {
+			while (open) {
+				handle(watchService.take());
+				// wait for the changes to stop
+				WatchKey key;
+				while ((key = watchService.poll(QUIET_MS, TimeUnit.MILLISECONDS))!=null) handle(key);
+				GameContent.reload(contentDir);
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// closed
+		}
+	}
+
+	private void handle(WatchKey key) {
+		Path directory = directories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (directory!=null && event.kind()==ENTRY_CREATE) {
+				Path created = directory.resolve((Path) event.context());
+				if (Files.isDirectory(created)) {
+					try {
+						register(created);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+		if (!key.reset()) directories.remove(key);
+	}
+
+	@Override
+	public void close() throws IOException {
+		open = false;
+		watchService.close();
+		thread.interrupt();
+	}
+
+}
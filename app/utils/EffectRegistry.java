@@ -0,0 +1,49 @@
+package utils;
+
+import structures.basic.EffectAnimation;
+
+/**
+ * The effect animations, by configuration file (the StaticConfFiles constants, e.g.
+ * StaticConfFiles.f1_buff). Every effect in conf/gameconfs/effects is read when the
+ * content is loaded (see preload()), so playing an effect is a map lookup. Effects from
+ * anywhere else are read the first time they are asked for.
+ *
+ * The EffectAnimation returned is shared by every game using the same ContentSnapshot
+ * and must not be modified.
+ *
+ */
+public class EffectRegistry {
+
+	public static final String effectsDIR = "conf/gameconfs/effects/";
+
+	private static final ContentSnapshot.Cache<EffectAnimation> effects = new ContentSnapshot.Cache<EffectAnimation>(EffectRegistry::read);
+
+	/**
+	 * @param configFile e.g. StaticConfFiles.f1_buff
+	 * @return the effect, or null if it cannot be read
+	 */
+	public static EffectAnimation get(String configFile) {
+		return effects.get(configFile);
+	}
+
+	/**
+	 * Reads every effect in conf/gameconfs/effects into the given snapshot
+	 * @param snapshot
+	 */
+	public static void preload(ContentSnapshot snapshot) {
+		snapshot.with(() -> {
+			for (String filename : GameContent.list(effectsDIR)) get(effectsDIR+filename);
+		});
+	}
+
+	private static EffectAnimation read(String configFile) {
+		try {
+			return GameContent.read(configFile, EffectAnimation.class);
+		} catch (Exception e) {
+			e.printStackTrace();
+
+		}
+		return null;
+	}
+
+}
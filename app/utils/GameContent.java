@@ -0,0 +1,142 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the game reads its configuration files from. Paths are the usual ones, e.g.
+ * conf/gameconfs/units/wraithling.json (see StaticConfFiles). They are read from a
+ * ContentSnapshot: the one bound to the current thread by a game, or else the latest.
+ *
+ * The first snapshot comes from conf/gameconfs.bundle unless open() is given another
+ * bundle (see game.content.bundle in application.conf). The bundle is only ever read
+ * here; it is compiled by the build (sbt contentBundle, which stage and dist include).
+ * If it is missing, or older than the loose files under conf/gameconfs, the content is
+ * built from the loose files in memory instead. With watch(), every change to the loose
+ * files builds and publishes a new snapshot in the background; games that are already
+ * running keep the one they started with.
+ *
+ */
+public class GameContent {
+
+	private static final AtomicLong versions = new AtomicLong();
+	private static volatile ContentSnapshot latest = null;
+	private static ContentWatcher watcher = null;
+
+	/**
+	 * Publishes the given bundle as the latest content. If the file does not exist, cannot
+	 * be read or is stale (see ContentBundle.isStale()), or the path is empty, the content
+	 * is built from the loose files in memory instead. Nothing is written.
+	 * @param bundleFile
+	 */
+	public static synchronized void open(String bundleFile) {
+		ContentBundle bundle = null;
+		Path contentDir = Paths.get(ContentBundle.CONTENT_DIR);
+		if (bundleFile!=null && !bundleFile.isEmpty()) {
+			Path file = Paths.get(bundleFile);
+			if (Files.exists(file)) {
+				try {
+					bundle = ContentBundle.open(file);
+					if (bundle.isStale(contentDir)) {
+						System.out.println("GameContent: "+file+" is out of date with "+contentDir+", reading "+contentDir+" instead");
+						bundle = null;
+					}
+				} catch (IOException e) {
+					e.printStackTrace(); // build it in memory below
+				}
+			}
+		}
+		if (bundle==null) {
+			try {
+				bundle = ContentBundle.build(contentDir);
+			} catch (IOException e) {
+				e.printStackTrace(); // read the loose files as they are
+			}
+		}
+		ContentSnapshot snapshot = new ContentSnapshot(versions.incrementAndGet(), bundle);
+		EffectRegistry.preload(snapshot);
+		latest = snapshot;
+	}
+
+	/**
+	 * Builds a new snapshot from the loose files in contentDir and publishes it. If any
+	 * file cannot be read, e.g. because it is half written, the latest snapshot stays.
+	 * @param contentDir
+	 * @return whether a new snapshot was published
+	 */
+	public static boolean reload(Path contentDir) {
+		try {
+			long start = System.currentTimeMillis();
+			ContentBundle bundle = ContentBundle.build(contentDir);
+			ContentSnapshot snapshot = new ContentSnapshot(versions.incrementAndGet(), bundle);
+			EffectRegistry.preload(snapshot);
+			latest = snapshot;
+			System.out.println("GameContent: reloaded "+bundle.size()+" files from "+contentDir+" as version "+snapshot.getVersion()
+					+" in "+(System.currentTimeMillis()-start)+" ms");
+			return true;
+		} catch (IOException e) {
+			System.err.println("GameContent: could not reload "+contentDir+", keeping version "+latest().getVersion());
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * Starts watching contentDir, and reloading whenever it changes. Does nothing if it
+	 * is already being watched.
+	 * @param contentDir
+	 * @return the watcher, close it to stop
+	 * @throws IOException
+	 */
+	public static synchronized ContentWatcher watch(Path contentDir) throws IOException {
+		if (watcher==null || !watcher.isOpen()) watcher = new ContentWatcher(contentDir);
+		return watcher;
+	}
+
+	/**
+	 * @return the newest content, what new games start with
+	 */
+	public static ContentSnapshot latest() {
+		ContentSnapshot snapshot = latest;
+		if (snapshot==null) {
+			synchronized (GameContent.class) {
+				if (latest==null) open(ContentBundle.DEFAULT_FILE);
+				snapshot = latest;
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return the snapshot of the game being processed on this thread, or the latest
+	 */
+	public static ContentSnapshot current() {
+		ContentSnapshot snapshot = ContentSnapshot.bound();
+		return snapshot!=null ? snapshot : latest();
+	}
+
+	/**
+	 * Reads a configuration file into an object
+	 * @param configFile e.g. conf/gameconfs/units/wraithling.json
+	 * @param type
+	 * @return
+	 * @throws IOException
+	 */
+	public static <T> T read(String configFile, Class<T> type) throws IOException {
+		return current().read(configFile, type);
+	}
+
+	/**
+	 * Lists the configuration files in a directory, like File.list()
+	 * @param directory e.g. conf/gameconfs/cards/
+	 * @return
+	 */
+	public static List<String> list(String directory) {
+		return current().list(directory);
+	}
+
+}
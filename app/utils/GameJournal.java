@@ -0,0 +1,246 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import commands.BinaryEncoding;
+
+/**
+ * An append-only record of one game: every event that came in from the browser and every
+ * command (or batch) that went out, each with the time it happened. It is written to
+ * memory-mapped segment files in a directory of its own, so appending a record is a copy
+ * into memory and the operating system writes the pages out in the background. What was
+ * appended survives the server process crashing, but only what close() forced to disk is
+ * sure to survive the machine going down.
+ *
+ * Every game takes a directory of its own, and at least SEGMENT_SIZE bytes of disk while
+ * it is being played; the unused rest of a segment is given back when the next one is
+ * started and when the journal is closed. prune() deletes the journals of older games,
+ * so that only the newest ones are kept; it walks and deletes files, so the GameActor runs
+ * it on a blocking dispatcher rather than on the thread starting the game.
+ *
+ * Segment files (000000.seg, 000001.seg, ...) start with a header:
+ *   int magic ("GJNL"), int version
+ * followed by records:
+ *   int length, byte kind (EVENT or COMMAND), long time (ms since the epoch), length bytes of CBOR
+ * The unused rest of a segment is zeros, so a length of 0 (or the end of the file, once
+ * the journal is closed) marks its end. The length is written last, so a record cut off
+ * half way is never read back.
+ *
+ * Read a journal back with JournalReader. A GameJournal belongs to one game and is not
+ * thread safe.
+ *
+ */
+public class GameJournal implements Closeable {
+
+	public static final byte EVENT = 0; // from the browser
+	public static final byte COMMAND = 1; // to the browser
+
+	static final int MAGIC = 0x474a4e4c;
+	static final int VERSION = 1;
+	static final int SEGMENT_HEADER = 8;
+	static final int RECORD_HEADER = 4+1+8;
+	static final int SEGMENT_SIZE = 1<<20;
+
+	// the directories of the journals that are open, which prune() must not delete
+	private static final Set<Path> open = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+
+	private final Path directory;
+	private final SegmentStream stream = new SegmentStream();
+	private int segments = 0;
+	private MappedByteBuffer segment;
+
+	/**
+	 * @param directory where to put the segment files, created if needed
+	 * @throws IOException
+	 */
+	public GameJournal(Path directory) throws IOException {
+		this.directory = directory.toAbsolutePath().normalize();
+		Files.createDirectories(directory);
+		open.add(this.directory);
+		nextSegment(SEGMENT_SIZE, false);
+	}
+
+	/**
+	 * Starts the journal of a new game, in a directory of its own under root named after
+	 * the time, so that the games sort oldest first (see prune())
+	 * @param root
+	 * @return
+	 * @throws IOException
+	 */
+	public static GameJournal start(Path root) throws IOException {
+		String gameId = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())+"-"+UUID.randomUUID().toString().substring(0, 8);
+		return new GameJournal(root.resolve(gameId));
+	}
+
+	/**
+	 * Deletes the oldest game journals under root until there are at most keep, never
+	 * one that is still open. Blocks on file I/O. Calls from several threads take turns.
+	 * @param root
+	 * @param keep how many games' journals to keep, or 0 to keep them all
+	 */
+	public static synchronized void prune(Path root, int keep) {
+		if (keep<=0 || !Files.isDirectory(root)) return;
+		List<Path> games;
+		try (Stream<Path> files = Files.list(root)) {
+			games = files.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		for (int i = 0; i < games.size()-keep; i++) {
+			Path game = games.get(i);
+			if (open.contains(game.toAbsolutePath().normalize())) continue;
+			try (Stream<Path> files = Files.walk(game)) {
+				for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+					Files.delete(file);
+				}
+			} catch (IOException e) {
+				e.printStackTrace(); // try again when the next game starts
+			}
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Records an event from the browser
+	 * @param message
+	 */
+	public void event(JsonNode message) {
+		append(EVENT, message);
+	}
+
+	/**
+	 * Records a command (or batch) sent to the browser
+	 * @param message
+	 */
+	public void command(JsonNode message) {
+		append(COMMAND, message);
+	}
+
+	private void append(byte kind, JsonNode message) {
+		if (segment==null) return; // closed
+		long time = System.currentTimeMillis();
+		try {
+			while (!tryAppend(kind, time, message)) {
+				// a record that does not fit in an empty segment gets the same file mapped
+				// twice as big, anything else a new segment
+				boolean empty = segment.position()==SEGMENT_HEADER;
+				nextSegment(empty ? segment.capacity()*2 : SEGMENT_SIZE, empty);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * @return false if the record did not fit in the rest of the current segment
+	 */
+	private boolean tryAppend(byte kind, long time, JsonNode message) throws IOException {
+		int start = segment.position();
+		if (segment.remaining()<RECORD_HEADER) return false;
+		segment.position(start+4);
+		segment.put(kind);
+		segment.putLong(time);
+		try {
+			BinaryEncoding.encode(message, stream);
+		} catch (SegmentFull e) {
+			segment.position(start); // the length is still 0, so this record does not exist
+			return false;
+		}
+		segment.putInt(start, segment.position()-start-RECORD_HEADER);
+		return true;
+	}
+
+	/**
+	 * @param size
+	 * @param grow true to map the current segment file again at the new size, instead of
+	 * starting the next one
+	 */
+	private void nextSegment(int size, boolean grow) throws IOException {
+		if (!grow) {
+			if (segment!=null) trim();
+			segments++;
+		}
+		StandardOpenOption create = grow ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW;
+		try (FileChannel channel = FileChannel.open(segmentFile(), create, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+		segment.putInt(MAGIC);
+		segment.putInt(VERSION);
+	}
+
+	private Path segmentFile() {
+		return directory.resolve(String.format("%06d.seg", segments-1));
+	}
+
+	/**
+	 * Cuts the current segment file down to what was used
+	 */
+	private void trim() {
+		try (FileChannel channel = FileChannel.open(segmentFile(), StandardOpenOption.WRITE)) {
+			channel.truncate(segment.position());
+		} catch (IOException e) {
+			e.printStackTrace(); // the journal is still readable, just bigger
+		}
+	}
+
+	/**
+	 * Forces what was appended to disk and cuts the last segment down to what was used.
+	 * Nothing is appended after this. The memory mapping itself is only let go of when it
+	 * is garbage collected, Java has no way to unmap it sooner.
+	 */
+	@Override
+	public void close() {
+		if (segment==null) return;
+		segment.force();
+		trim();
+		segment = null;
+		open.remove(directory);
+	}
+
+	private static class SegmentFull extends IOException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Lets the CBOR encoder write straight into the current segment
+	 */
+	private class SegmentStream extends OutputStream {
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!segment.hasRemaining()) throw new SegmentFull();
+			segment.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (segment.remaining()<len) throw new SegmentFull();
+			segment.put(b, off, len);
+		}
+
+	}
+
+}
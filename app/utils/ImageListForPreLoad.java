@@ -1,13 +1,13 @@
 package utils;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import structures.basic.Card;
-import structures.basic.Tile;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import structures.basic.TileDefinition;
 import structures.basic.Unit;
 
 /**
@@ -44,24 +44,24 @@ public class ImageListForPreLoad {
 		images.add("assets/GameUtils/extra/ui/button_primary.png");
 		
 		// Tiles
-		images.addAll(Tile.constructTile(StaticConfFiles.tileConf).getTileTextures());
+		images.addAll(TileDefinition.load(StaticConfFiles.tileConf).getTileTextures());
 		
 		// Avatars
 		images.addAll(BasicObjectBuilders.loadUnit(StaticConfFiles.humanAvatar, -1, Unit.class).getAnimations().getAllFrames());
 		images.addAll(BasicObjectBuilders.loadUnit(StaticConfFiles.aiAvatar, -1, Unit.class).getAnimations().getAllFrames());
 		
 		String cardsDIR = "conf/gameconfs/cards/";
-		for (String filename : new File(cardsDIR).list()) {
+		for (String filename : GameContent.list(cardsDIR)) {
 			images.addAll(getCardImagesForPreload(cardsDIR+filename));
 		}
 		
 		String unitsDIR = "conf/gameconfs/units/";
-		for (String filename : new File(unitsDIR).list()) {
+		for (String filename : GameContent.list(unitsDIR)) {
 			images.addAll(getUnitImagesForPreload(BasicObjectBuilders.loadUnit(unitsDIR+filename, -1, Unit.class)));
 		}
 		
 		String effectsDIR = "conf/gameconfs/effects/";
-		for (String filename : new File(effectsDIR).list()) {
+		for (String filename : GameContent.list(effectsDIR)) {
 			images.addAll(BasicObjectBuilders.loadEffect(effectsDIR+filename).getAnimationTextures());
 		}
 		
@@ -74,11 +74,23 @@ public class ImageListForPreLoad {
 	}
 	
 	public static List<String> getCardImagesForPreload(String configFile) {
-		Card card = BasicObjectBuilders.loadCard(configFile, 0, Card.class);
-		List<String> images = new ArrayList<String>(card.getMiniCard().getAnimationFrames().length+card.getMiniCard().getCardTextures().length+card.getBigCard().getCardTextures().length);
-		for (String image : card.getMiniCard().getAnimationFrames()) images.add(image);
-		for (String image : card.getMiniCard().getCardTextures()) images.add(image);
-		for (String image :card.getBigCard().getCardTextures()) images.add(image);
+		List<String> images = new ArrayList<String>();
+		try {
+			// only the pictures are needed, so read the configuration as it is (Card is abstract)
+			JsonNode card = GameContent.read(configFile, JsonNode.class);
+			if (card.path("isCreature").asBoolean()) {
+				// as in loadCard, the mini card shows the unit's idle animation
+				Unit unit = BasicObjectBuilders.loadUnit(card.get("unitConfig").asText(), -1, Unit.class);
+				int[] idle = unit.getAnimations().getIdle().getFrameStartEndIndices();
+				images.addAll(unit.getAnimations().getAllFrames().subList(idle[0], idle[1]));
+			} else {
+				for (JsonNode image : card.path("miniCard").path("animationFrames")) images.add(image.asText());
+			}
+			for (JsonNode image : card.path("miniCard").path("cardTextures")) images.add(image.asText());
+			for (JsonNode image : card.path("bigCard").path("cardTextures")) images.add(image.asText());
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
 		return images;
 	}
 	
@@ -0,0 +1,149 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import commands.BinaryEncoding;
+
+/**
+ * Reads back a journal written by GameJournal, in the order it was written, either as
+ * fast as possible or paced like the original game (or faster or slower).
+ *
+ * Can also be run on its own to print a journal, one record per line:
+ *   JournalReader <journal directory> [speed]
+ *
+ */
+public class JournalReader {
+
+	/**
+	 * One record from the journal
+	 */
+	public static class Entry {
+
+		private final byte kind;
+		private final long time;
+		private final JsonNode message;
+
+		public Entry(byte kind, long time, JsonNode message) {
+			this.kind = kind;
+			this.time = time;
+			this.message = message;
+		}
+
+		/**
+		 * @return GameJournal.EVENT or GameJournal.COMMAND
+		 */
+		public byte getKind() {
+			return kind;
+		}
+
+		public boolean isEvent() {
+			return kind==GameJournal.EVENT;
+		}
+
+		/**
+		 * @return when it happened, ms since the epoch
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		public JsonNode getMessage() {
+			return message;
+		}
+
+		@Override
+		public String toString() {
+			return time+" "+(isEvent() ? "event  " : "command")+" "+message;
+		}
+	}
+
+	private final Path directory;
+
+	/**
+	 * @param directory the directory of one game's journal
+	 */
+	public JournalReader(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Passes every record to consumer, as fast as possible
+	 * @param consumer
+	 * @throws IOException
+	 */
+	public void read(Consumer<Entry> consumer) throws IOException {
+		replay(consumer, 0);
+	}
+
+	/**
+	 * Passes every record to consumer, waiting between them as long as the game did
+	 * divided by speed, e.g. 1 for real time or 10 for ten times faster. A speed of 0
+	 * means no waiting.
+	 * @param consumer
+	 * @param speed
+	 * @throws IOException
+	 */
+	public void replay(Consumer<Entry> consumer, double speed) throws IOException {
+		long first = -1;
+		long started = System.currentTimeMillis();
+		for (Path file : segments()) {
+			MappedByteBuffer segment;
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+			if (segment.remaining()<GameJournal.SEGMENT_HEADER || segment.getInt()!=GameJournal.MAGIC) {
+				throw new IOException(file+" is not a game journal segment");
+			}
+			int version = segment.getInt();
+			if (version!=GameJournal.VERSION) throw new IOException(file+" has unsupported version "+version);
+
+			byte[] payload = new byte[256];
+			while (segment.remaining()>=GameJournal.RECORD_HEADER) {
+				int length = segment.getInt();
+				if (length<=0) break; // the end of what was written
+				byte kind = segment.get();
+				long time = segment.getLong();
+				if (payload.length<length) payload = new byte[Math.max(length, payload.length*2)];
+				segment.get(payload, 0, length);
+				JsonNode message = BinaryEncoding.decode(payload, 0, length);
+
+				if (first<0) first = time;
+				if (speed>0) {
+					long wait = started+(long) ((time-first)/speed)-System.currentTimeMillis();
+					if (wait>0) {
+						try {Thread.sleep(wait);} catch (InterruptedException e) {e.printStackTrace();}
+					}
+				}
+				consumer.accept(new Entry(kind, time, message));
+			}
+		}
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().collect(Collectors.toList());
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length<1) {
+			System.err.println("Usage: JournalReader <journal directory> [speed]");
+			return;
+		}
+		double speed = args.length>1 ? Double.parseDouble(args[1]) : 0;
+		new JournalReader(Paths.get(args[0])).replay(System.out::println, speed);
+	}
+
+}
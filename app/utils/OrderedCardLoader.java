@@ -1,74 +1,88 @@
 package utils;
 
-import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import structures.basic.Card;
 import structures.subcard.CardFactory;
 
 /**
  * This is a utility class that provides methods for loading the decks for each
- * player, as the deck ordering is fixed. 
+ * player, as the deck ordering is fixed.
+ *
+ * The cards in each deck are worked out once per ContentSnapshot (the deck template)
+ * and sorted by configuration file name, e.g. 1_1_c_u_bad_omen.json before
+ * 1_2_c_s_hornoftheforsaken.json, so every game gets them in the same order. Building a deck then only creates the cards.
  * @author Richard
  *
  */
 public class OrderedCardLoader {
 
 	public static String cardsDIR = "conf/gameconfs/cards/";
-	
+
+	// cardsDIR + deck prefix -> the constructor of each card in the deck, in order
+	private static final ContentSnapshot.Cache<List<Supplier<Card>>> deckTemplates = new ContentSnapshot.Cache<List<Supplier<Card>>>(OrderedCardLoader::readDeckTemplate);
+
 	/**
 	 * Returns all of the cards in the human player's deck in order
 	 * @return
 	 */
 	public static List<Card> getPlayer1Cards(int copies) {
-	
-		List<Card> cardsInDeck = new ArrayList<Card>(20);
-		
-		int cardID = 1;
-		for (int i = 0; i < copies; i++) {
-			for (String filename : new File(cardsDIR).list()) {
-				if (filename.startsWith("1_")) {
-					// this is a deck 1 card
-					Card card = CardFactory.createCardFromFilename(filename, cardID++);
-					if (card != null) {
-						cardsInDeck.add(card);
-					} else {
-						// 如果创建失败，使用基础加载方法作为后备
-						cardsInDeck.add(BasicObjectBuilders.loadCard(cardsDIR+filename, cardID-1, Card.class));
-					}
-				}
-			}
-		}
-		
-		return cardsInDeck;
+		return buildDeck(getDeckTemplate("1_"), copies);
 	}
-	
-	
+
+
 	/**
 	 * Returns all of the cards in the human player's deck in order
 	 * @return
 	 */
 	public static List<Card> getPlayer2Cards(int copies) {
-	
-		List<Card> cardsInDeck = new ArrayList<Card>(20);
-		
+		return buildDeck(getDeckTemplate("2_"), copies);
+	}
+
+	private static List<Card> buildDeck(List<Supplier<Card>> template, int copies) {
+		List<Card> cardsInDeck = new ArrayList<Card>(template.size()*copies);
 		int cardID = 1;
 		for (int i = 0; i < copies; i++) {
-			for (String filename : new File(cardsDIR).list()) {
-				if (filename.startsWith("2_")) {
-					// this is a deck 2 card
-					Card card = CardFactory.createCardFromFilename(filename, cardID++);
-					if (card != null) {
-						cardsInDeck.add(card);
-					} else {
-						// 如果创建失败，使用基础加载方法作为后备
-						cardsInDeck.add(BasicObjectBuilders.loadCard(cardsDIR+filename, cardID-1, Card.class));
-					}
-				}
+			for (Supplier<Card> constructor : template) {
+				Card card = constructor.get();
+				card.setId(cardID++);
+				cardsInDeck.add(card);
 			}
 		}
-		
 		return cardsInDeck;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * @param prefix what the configuration files of the deck's cards start with, e.g. 1_
+	 * @return the constructor of each card in the deck, sorted by configuration file name
+	 * @throws IllegalStateException if a card in the deck has no class in CardFactory
+	 */
+	private static List<Supplier<Card>> getDeckTemplate(String prefix) {
+		return deckTemplates.get(cardsDIR+prefix);
+	}
+
+	private static List<Supplier<Card>> readDeckTemplate(String key) {
+		String directory = key.substring(0, key.lastIndexOf('/')+1);
+		String prefix = key.substring(directory.length());
+
+		List<String> filenames = new ArrayList<String>();
+		for (String filename : GameContent.list(directory)) {
+			if (filename.startsWith(prefix)) filenames.add(filename);
+		}
+		Collections.sort(filenames);
+
+		List<Supplier<Card>> template = new ArrayList<Supplier<Card>>(filenames.size());
+		for (String filename : filenames) {
+			Supplier<Card> constructor = CardFactory.constructorFor(filename);
+			if (constructor == null) {
+				// Card is abstract, so a card without a class of its own cannot be loaded at all
+				throw new IllegalStateException("No card class for "+directory+filename+", add it to CardFactory");
+			}
+			template.add(constructor);
+		}
+		return Collections.unmodifiableList(template);
+	}
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The list of images the browser pre-loads (see ImageListForPreLoad), worked out once
+ * per ContentSnapshot rather than once per game. It is served at PATH+version by the
+ * PreloadController; the version is a hash of the list, so the browser can cache it for
+ * good and only fetches it again when the content changes.
+ *
+ */
+public class PreloadManifest {
+
+	// Where the manifest is served, followed by its version (see conf/routes)
+	public static final String PATH = "/preload/";
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+	// one per ContentSnapshot, under the key ""
+	private static final ContentSnapshot.Cache<PreloadManifest> manifests = new ContentSnapshot.Cache<PreloadManifest>(PreloadManifest::build);
+
+	private final List<String> images;
+	private final byte[] json;
+	private final String version;
+
+	private PreloadManifest(List<String> images) throws Exception {
+		this.images = Collections.unmodifiableList(images);
+		this.json = mapper.writeValueAsBytes(images);
+		byte[] digest = MessageDigest.getInstance("SHA-1").digest(json);
+		StringBuilder hex = new StringBuilder();
+		for (int i = 0; i < 8; i++) hex.append(String.format("%02x", digest[i]));
+		this.version = hex.toString();
+	}
+
+	/**
+	 * @return the manifest for the current content, worked out on first use
+	 */
+	public static PreloadManifest get() {
+		return manifests.get("");
+	}
+
+	private static PreloadManifest build(String key) {
+		try {
+			// sorted so that the same content always gives the same version
+			List<String> images = new ArrayList<String>(ImageListForPreLoad.getImageListForPreLoad());
+			Collections.sort(images);
+			return new PreloadManifest(images);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not build the preload manifest", e);
+		}
+	}
+
+	public List<String> getImages() {
+		return images;
+	}
+
+	/**
+	 * @return the images as a JSON array, ready to send
+	 */
+	public byte[] getJson() {
+		return json;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return where the browser can fetch this version of the manifest
+	 */
+	public String getPath() {
+		return PATH+version;
+	}
+
+}
@@ -0,0 +1,37 @@
+import sbt._
+import sbt.Keys._
+import com.typesafe.sbt.packager.universal.UniversalPlugin.autoImport._
+import play.sbt.PlayImport.PlayKeys
+
+/**
+ * Compiles conf/gameconfs into one content bundle (see utils.ContentBundle) with
+ * sbt contentBundle, and ships it in stage and dist as conf/gameconfs.bundle in place of
+ * the loose files, so the server never has to compile or write it. In dev mode (sbt run)
+ * it also turns on game.content.watch, so edits to conf/gameconfs are picked up live.
+ */
+object ContentBundlePlugin extends AutoPlugin {
+
+  override def requires = play.sbt.PlayJava
+  override def trigger = allRequirements
+
+  object autoImport {
+    val contentBundle = taskKey[File]("Compiles conf/gameconfs into target/gameconfs.bundle")
+  }
+  import autoImport._
+
+  override def projectSettings = Seq(
+    contentBundle := {
+      val contentDir = baseDirectory.value / "conf" / "gameconfs"
+      val bundle = target.value / "gameconfs.bundle"
+      val classpath = (Compile / fullClasspath).value.files
+      (Compile / runner).value.run("utils.ContentBundle", classpath, Seq(contentDir.getPath, bundle.getPath), streams.value.log).get
+      bundle
+    },
+    Universal / mappings := {
+      val bundle = contentBundle.value
+      (Universal / mappings).value.filterNot { case (_, path) => path.startsWith("conf/gameconfs/") } :+ (bundle -> "conf/gameconfs.bundle")
+    },
+    PlayKeys.devSettings += "game.content.watch" -> "true"
+  )
+
+}